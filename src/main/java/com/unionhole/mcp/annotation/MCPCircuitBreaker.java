@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Circuit breaker settings, used as the value of
+ * {@link MCPMethod#circuitBreaker()} or {@link MCPService#circuitBreaker()}
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+@Target({})
+@Retention(RetentionPolicy.SOURCE)
+@Documented
+public @interface MCPCircuitBreaker {
+    /**
+     * Whether the breaker is generated
+     */
+    boolean enabled() default true;
+
+    /**
+     * Failure rate (percent) in the sliding window that opens the breaker
+     */
+    int failureRateThreshold() default 50;
+
+    /**
+     * Calls slower than this are counted as slow, zero disables slow-call tracking
+     */
+    long slowCallMillis() default 0;
+
+    /**
+     * Slow-call rate (percent) in the sliding window that opens the breaker
+     */
+    int slowCallRateThreshold() default 100;
+
+    /**
+     * Number of most recent calls the rates are computed over
+     */
+    int windowSize() default 20;
+
+    /**
+     * Calls needed in the window before the rates are evaluated
+     */
+    int minimumCalls() default 10;
+
+    /**
+     * How long the breaker stays open before letting probe calls through
+     */
+    long openMillis() default 30000;
+
+    /**
+     * Number of probe calls allowed while half-open
+     */
+    int halfOpenCalls() default 3;
+}
@@ -33,4 +33,124 @@ public @interface MCPMethod {
      * Description of the method, will be used in @Tool annotation
      */
     String description() default "";
-} 
\ No newline at end of file
+
+    /**
+     * Maximum number of elements buffered per chunk when the method returns
+     * a {@code Stream} or {@code Iterator}
+     */
+    int chunkSize() default 256;
+
+    /**
+     * Largest serialized result (in bytes) returned inline. Bigger results are
+     * written to a memory-mapped temp file and replaced by a resource reference
+     * that can be read in ranges. Zero or negative disables spilling.
+     */
+    long maxInlineBytes() default -1;
+
+    /**
+     * Sustained calls per second allowed for this tool. Zero inherits
+     * {@link MCPService#rateLimit()}, a negative value disables the limit.
+     */
+    double rateLimit() default 0;
+
+    /**
+     * Calls that may be admitted at once, defaults to one second worth of calls
+     */
+    int rateBurst() default 0;
+
+    /**
+     * Name of a method parameter whose value selects a separate bucket
+     * (e.g. a session or tenant id). Empty means one bucket for all callers.
+     */
+    String rateLimitKey() default "";
+
+    /**
+     * Circuit breaker around the service call, overrides
+     * {@link MCPService#circuitBreaker()} when enabled
+     */
+    MCPCircuitBreaker circuitBreaker() default @MCPCircuitBreaker(enabled = false);
+
+    /**
+     * Whether calling the method twice with the same arguments is harmless,
+     * required for hedging
+     */
+    boolean idempotent() default false;
+
+    /**
+     * Milliseconds after which a second (hedge) call is started for an
+     * idempotent method, zero disables hedging
+     */
+    long hedgeAfter() default 0;
+
+    /**
+     * Maximum share of calls (percent) that may be hedged
+     */
+    int hedgeBudgetPercent() default 10;
+
+    /**
+     * Emit a Flight Recorder event and keep a ring-buffer entry for every call
+     */
+    boolean flightRecorder() default false;
+
+    /**
+     * Whether the method has no side effects, only such methods are actually
+     * called by the generated warm-up
+     */
+    boolean readOnly() default false;
+
+    /**
+     * Sample arguments for the warm-up, each a JSON object keyed by parameter
+     * name. Missing parameters get synthetic values.
+     */
+    String[] warmupArgs() default {};
+
+    /**
+     * Admission priority from 0 (lowest) to 9 (highest). Setting it routes the
+     * tool through the server-wide admission scheduler; -1 inherits
+     * {@link MCPService#admissionControl()} with the normal priority 5.
+     */
+    int priority() default -1;
+
+    /**
+     * Page size of a method returning a {@code Collection}. Such tools take an
+     * opaque {@code cursor} and return a {@code Page} with the next cursor.
+     * 0 (the default) or a negative value leaves the method unpaged.
+     * A service overload taking two trailing int/long parameters (offset, limit)
+     * receives the page bounds instead of materializing the whole collection.
+     */
+    int pageSize() default 0;
+
+    /**
+     * Seconds the JSON result of a call is kept in the persistent
+     * {@code ResultCache}, keyed by the tool arguments. 0 inherits
+     * {@link MCPService#cacheTtl()}, a negative value disables caching.
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * Conditional results for polling tools. The tool takes an optional
+     * {@code ifNoneMatch} argument and returns a {@code ConditionalResult}
+     * with the content hash of the result; when the hash equals
+     * {@code ifNoneMatch} only an "unchanged" marker is returned.
+     */
+    boolean conditional() default false;
+
+    /**
+     * Deadline of a call in milliseconds, 0 for none. A call that outlives it
+     * is interrupted and fails with code 504; services declaring a
+     * {@code CallContext} parameter can read the remaining time.
+     */
+    long timeout() default 0;
+
+    /**
+     * Write every call (caller session, argument digest, outcome, duration)
+     * to the audit journal. Records are queued and written in the background.
+     */
+    boolean audit() default false;
+
+    /**
+     * Sample calls (tool name, arguments, start time, duration) to the traffic
+     * capture file for replay with {@code TrafficReplay}.
+     */
+    boolean capture() default false;
+}
@@ -38,4 +38,56 @@ public @interface MCPService {
      * 如果为空，则使用原始类的包名
      */
     String packageName() default "";
+
+    /**
+     * 每个工具默认的每秒调用上限，0 表示不限流
+     */
+    double rateLimit() default 0;
+
+    /**
+     * 默认的突发调用数，0 表示一秒的调用量
+     */
+    int rateBurst() default 0;
+
+    /**
+     * 每个工具默认的熔断配置，默认不启用
+     */
+    MCPCircuitBreaker circuitBreaker() default @MCPCircuitBreaker(enabled = false);
+
+    /**
+     * 为所有工具记录 JFR 事件和最近调用环形缓冲
+     */
+    boolean flightRecorder() default false;
+
+    /**
+     * 将所有工具的调用写入审计日志
+     */
+    boolean audit() default false;
+
+    /**
+     * 为所有工具采样记录调用流量，用于回放压测
+     */
+    boolean capture() default false;
+
+    /**
+     * 生成在接收流量之前执行的预热组件
+     */
+    boolean warmup() default false;
+
+    /**
+     * 所有工具都经过全局准入调度器，未设置优先级的工具使用普通优先级
+     */
+    boolean admissionControl() default false;
+
+    /**
+     * 工具结果在持久化缓存中保留的秒数，0 表示不缓存
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * 远程模式：Facade 不再调用本地 service，而是把调用转发到服务节点池。
+     * 取值为逗号分隔的 host:port 列表，或 ${属性名} / ${属性名:默认值} 形式从系统属性读取，
+     * 为空表示本地调用。节点端使用生成的 Endpoint 类注册 service
+     */
+    String remote() default "";
 } 
\ No newline at end of file
@@ -52,6 +52,9 @@ public class DemoProjectGenerator {
         // 生成主要的类文件
         generateMainClass(srcPath);
         generateConfigClass(srcPath);
+        generateSpillResourceFacade(srcPath);
+        generateCompressionFilter(srcPath);
+        generateBatchToolFacade(srcPath);
         generateApplicationProperties(resourcesPath);
         generateTestClass(projectRoot.resolve("src/test/java/" + packagePath));
         
@@ -201,7 +204,10 @@ public class DemoProjectGenerator {
             writer.println("    │   │       ├── service/");
             writer.println("    │   │       │   └── WeatherService.java    # 示例服务");
             writer.println("    │   │       └── config/");
-            writer.println("    │   │           └── McpServerConfig.java   # MCP 配置");
+            writer.println("    │   │           ├── McpServerConfig.java   # MCP 配置");
+            writer.println("    │   │           ├── SpillResourceFacade.java # 大结果分段读取");
+            writer.println("    │   │           ├── BatchToolFacade.java   # 批量并发调用工具");
+            writer.println("    │   │           └── CompressionFilter.java # 响应 gzip 压缩");
             writer.println("    │   └── resources/");
             writer.println("    │       └── application.properties         # 应用配置");
             writer.println("    └── test/");
@@ -270,6 +276,16 @@ public class DemoProjectGenerator {
             writer.println("spring.ai.mcp.server.version=1.0.0");
             writer.println("spring.ai.mcp.server.type=SYNC");
             writer.println("spring.ai.mcp.server.sse-message-endpoint=/mcp/messages");
+            writer.println();
+            writer.println("# Compact JSON: no pretty printing, no null fields");
+            writer.println("spring.jackson.serialization.indent-output=false");
+            writer.println("spring.jackson.default-property-inclusion=non_null");
+            writer.println();
+            writer.println("# Gzip compression for clients sending Accept-Encoding: gzip");
+            writer.println("mcp.compression.enabled=true");
+            writer.println("mcp.compression.min-response-size=2048");
+            writer.println("mcp.compression.pool-size=16");
+            writer.println("mcp.compression.level=1");
             writer.println("```");
             writer.println();
             writer.println("### 3. MCP Tools 配置");
@@ -431,6 +447,220 @@ public class DemoProjectGenerator {
         }
     }
 
+    private void generateSpillResourceFacade(Path srcPath) throws IOException {
+        Path configPath = srcPath.resolve("config");
+        Files.createDirectories(configPath);
+
+        try (PrintWriter writer = new PrintWriter(configPath.resolve("SpillResourceFacade.java").toFile())) {
+            writer.println("package " + groupId + ".config;");
+            writer.println();
+            writer.println("import com.unionhole.mcp.runtime.SpillStore;");
+            writer.println("import com.unionhole.mcp.vo.SpilledRange;");
+            writer.println("import org.springframework.ai.tool.annotation.Tool;");
+            writer.println("import org.springframework.stereotype.Component;");
+            writer.println();
+            writer.println("@Component");
+            writer.println("public class SpillResourceFacade {");
+            writer.println("    @Tool(description = \"Read a range of a large tool result that was returned as an mcp-spill:// resource reference\")");
+            writer.println("    public SpilledRange readSpilledResult(String uri, long offset, int length) {");
+            writer.println("        return SpillStore.read(uri, offset, length);");
+            writer.println("    }");
+            writer.println("}");
+        }
+    }
+
+    private void generateBatchToolFacade(Path srcPath) throws IOException {
+        Path configPath = srcPath.resolve("config");
+        Files.createDirectories(configPath);
+
+        try (PrintWriter writer = new PrintWriter(configPath.resolve("BatchToolFacade.java").toFile())) {
+            writer.println("package " + groupId + ".config;");
+            writer.println();
+            writer.println("import com.unionhole.mcp.runtime.BatchExecutor;");
+            writer.println("import com.unionhole.mcp.vo.BatchCall;");
+            writer.println("import com.unionhole.mcp.vo.MCPResponse;");
+            writer.println("import org.springframework.ai.tool.annotation.Tool;");
+            writer.println("import org.springframework.stereotype.Component;");
+            writer.println();
+            writer.println("import java.util.List;");
+            writer.println();
+            writer.println("@Component");
+            writer.println("public class BatchToolFacade {");
+            writer.println("    @Tool(description = \"Run several independent tool calls concurrently in one request. Each call has a tool name and \"");
+            writer.println("            + \"its arguments object; results are returned in the same order, failed calls as errors\")");
+            writer.println("    public List<MCPResponse> callTools(List<BatchCall> calls) {");
+            writer.println("        return BatchExecutor.execute(calls);");
+            writer.println("    }");
+            writer.println("}");
+        }
+    }
+
+    private void generateCompressionFilter(Path srcPath) throws IOException {
+        Path configPath = srcPath.resolve("config");
+        Files.createDirectories(configPath);
+
+        try (PrintWriter writer = new PrintWriter(configPath.resolve("CompressionFilter.java").toFile())) {
+            writer.println("package " + groupId + ".config;");
+            writer.println();
+            writer.println("import com.unionhole.mcp.runtime.GzipPool;");
+            writer.println("import jakarta.servlet.AsyncEvent;");
+            writer.println("import jakarta.servlet.AsyncListener;");
+            writer.println("import jakarta.servlet.FilterChain;");
+            writer.println("import jakarta.servlet.ServletException;");
+            writer.println("import jakarta.servlet.ServletOutputStream;");
+            writer.println("import jakarta.servlet.WriteListener;");
+            writer.println("import jakarta.servlet.http.HttpServletRequest;");
+            writer.println("import jakarta.servlet.http.HttpServletResponse;");
+            writer.println("import jakarta.servlet.http.HttpServletResponseWrapper;");
+            writer.println("import org.springframework.beans.factory.annotation.Value;");
+            writer.println("import org.springframework.stereotype.Component;");
+            writer.println("import org.springframework.web.filter.OncePerRequestFilter;");
+            writer.println();
+            writer.println("import java.io.IOException;");
+            writer.println("import java.io.OutputStream;");
+            writer.println("import java.io.OutputStreamWriter;");
+            writer.println("import java.io.PrintWriter;");
+            writer.println();
+            writer.println("/**");
+            writer.println(" * Gzip compression of MCP responses for clients sending Accept-Encoding: gzip.");
+            writer.println(" * SSE streams are compressed from the start with a sync flush per event, other");
+            writer.println(" * responses only above mcp.compression.min-response-size bytes.");
+            writer.println(" */");
+            writer.println("@Component");
+            writer.println("public class CompressionFilter extends OncePerRequestFilter {");
+            writer.println("    private final boolean enabled;");
+            writer.println("    private final int minResponseSize;");
+            writer.println("    private final GzipPool pool;");
+            writer.println();
+            writer.println("    public CompressionFilter(@Value(\"${mcp.compression.enabled:true}\") boolean enabled,");
+            writer.println("                             @Value(\"${mcp.compression.min-response-size:2048}\") int minResponseSize,");
+            writer.println("                             @Value(\"${mcp.compression.pool-size:16}\") int poolSize,");
+            writer.println("                             @Value(\"${mcp.compression.level:1}\") int level) {");
+            writer.println("        this.enabled = enabled;");
+            writer.println("        this.minResponseSize = minResponseSize;");
+            writer.println("        this.pool = new GzipPool(poolSize, level);");
+            writer.println("    }");
+            writer.println();
+            writer.println("    @Override");
+            writer.println("    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,");
+            writer.println("                                    FilterChain chain) throws ServletException, IOException {");
+            writer.println("        if (!enabled || !GzipPool.acceptsGzip(request.getHeader(\"Accept-Encoding\"))) {");
+            writer.println("            chain.doFilter(request, response);");
+            writer.println("            return;");
+            writer.println("        }");
+            writer.println("        response.addHeader(\"Vary\", \"Accept-Encoding\");");
+            writer.println("        GzipResponse gzipResponse = new GzipResponse(response);");
+            writer.println("        chain.doFilter(request, gzipResponse);");
+            writer.println("        if (request.isAsyncStarted()) {");
+            writer.println("            // SSE 长连接在异步请求结束时才写入 gzip 结尾");
+            writer.println("            request.getAsyncContext().addListener(new AsyncListener() {");
+            writer.println("                public void onComplete(AsyncEvent event) throws IOException {");
+            writer.println("                    gzipResponse.finish();");
+            writer.println("                }");
+            writer.println("                public void onTimeout(AsyncEvent event) {");
+            writer.println("                    gzipResponse.finishQuietly();");
+            writer.println("                }");
+            writer.println("                public void onError(AsyncEvent event) {");
+            writer.println("                    gzipResponse.finishQuietly();");
+            writer.println("                }");
+            writer.println("                public void onStartAsync(AsyncEvent event) {");
+            writer.println("                }");
+            writer.println("            });");
+            writer.println("        } else {");
+            writer.println("            gzipResponse.finish();");
+            writer.println("        }");
+            writer.println("    }");
+            writer.println();
+            writer.println("    private class GzipResponse extends HttpServletResponseWrapper {");
+            writer.println("        private ServletOutputStream outputStream;");
+            writer.println("        private PrintWriter printWriter;");
+            writer.println();
+            writer.println("        GzipResponse(HttpServletResponse response) {");
+            writer.println("            super(response);");
+            writer.println("        }");
+            writer.println();
+            writer.println("        @Override");
+            writer.println("        public ServletOutputStream getOutputStream() throws IOException {");
+            writer.println("            if (outputStream == null) {");
+            writer.println("                HttpServletResponse response = (HttpServletResponse) getResponse();");
+            writer.println("                ServletOutputStream target = response.getOutputStream();");
+            writer.println("                String contentType = response.getContentType();");
+            writer.println("                boolean sse = contentType != null && contentType.startsWith(\"text/event-stream\");");
+            writer.println("                OutputStream gzip = pool.open(target, sse ? 0 : minResponseSize, () -> {");
+            writer.println("                    response.setHeader(\"Content-Encoding\", \"gzip\");");
+            writer.println("                    response.setContentLengthLong(-1);");
+            writer.println("                });");
+            writer.println("                outputStream = new ServletOutputStream() {");
+            writer.println("                    public void write(int b) throws IOException {");
+            writer.println("                        gzip.write(b);");
+            writer.println("                    }");
+            writer.println("                    public void write(byte[] b, int off, int len) throws IOException {");
+            writer.println("                        gzip.write(b, off, len);");
+            writer.println("                    }");
+            writer.println("                    public void flush() throws IOException {");
+            writer.println("                        gzip.flush();");
+            writer.println("                    }");
+            writer.println("                    public void close() throws IOException {");
+            writer.println("                        gzip.close();");
+            writer.println("                    }");
+            writer.println("                    public boolean isReady() {");
+            writer.println("                        return target.isReady();");
+            writer.println("                    }");
+            writer.println("                    public void setWriteListener(WriteListener listener) {");
+            writer.println("                        target.setWriteListener(listener);");
+            writer.println("                    }");
+            writer.println("                };");
+            writer.println("            }");
+            writer.println("            return outputStream;");
+            writer.println("        }");
+            writer.println();
+            writer.println("        @Override");
+            writer.println("        public PrintWriter getWriter() throws IOException {");
+            writer.println("            if (printWriter == null) {");
+            writer.println("                printWriter = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));");
+            writer.println("            }");
+            writer.println("            return printWriter;");
+            writer.println("        }");
+            writer.println();
+            writer.println("        @Override");
+            writer.println("        public void setContentLength(int len) {");
+            writer.println("            // 压缩后长度未知，不透传原始长度");
+            writer.println("        }");
+            writer.println();
+            writer.println("        @Override");
+            writer.println("        public void setContentLengthLong(long len) {");
+            writer.println("        }");
+            writer.println();
+            writer.println("        @Override");
+            writer.println("        public void flushBuffer() throws IOException {");
+            writer.println("            if (printWriter != null) {");
+            writer.println("                printWriter.flush();");
+            writer.println("            } else if (outputStream != null) {");
+            writer.println("                outputStream.flush();");
+            writer.println("            }");
+            writer.println("            super.flushBuffer();");
+            writer.println("        }");
+            writer.println();
+            writer.println("        void finish() throws IOException {");
+            writer.println("            if (printWriter != null) {");
+            writer.println("                printWriter.close();");
+            writer.println("            } else if (outputStream != null) {");
+            writer.println("                outputStream.close();");
+            writer.println("            }");
+            writer.println("        }");
+            writer.println();
+            writer.println("        void finishQuietly() {");
+            writer.println("            try {");
+            writer.println("                finish();");
+            writer.println("            } catch (IOException e) {");
+            writer.println("                // 连接可能已断开，关闭流只为把 Deflater 归还到池中");
+            writer.println("            }");
+            writer.println("        }");
+            writer.println("    }");
+            writer.println("}");
+        }
+    }
+
     private void generateApplicationProperties(Path resourcesPath) throws IOException {
         try (PrintWriter writer = new PrintWriter(resourcesPath.resolve("application.properties").toFile())) {
             writer.println("server.port=8080");
@@ -0,0 +1,635 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.generator;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Generates reflection-free Jackson serializers and deserializers for the DTOs
+ * reachable from the public methods of an {@code @MCPService} class. All codecs
+ * of a service are emitted as nested classes of one {@code <Service>JsonModule},
+ * which is a Spring component (picked up by Spring Boot's ObjectMapper) and is
+ * registered with {@code JsonCodecs} by the generated facade.
+ *
+ * <p>A type is treated as a DTO when it is a public, non-generic class or record
+ * outside the JDK that carries no Jackson annotations and no public instance
+ * fields. Classes get a serializer from their public getters and a
+ * deserializer when they also have a public no-arg constructor and every
+ * property has exactly one setter of its type; records always get both unless
+ * they declare getters besides their components. Other types are left to
+ * Jackson.
+ *
+ * <p>The codecs check the mapper configuration when Jackson contextualizes
+ * them and hand the type back to Jackson's bean codecs when it differs from
+ * what they implement, see {@code JsonCodecs.supportsGeneratedCodecs}.
+ * Unknown properties go through {@code DeserializationContext.handleUnknownProperty}.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class JsonCodecGenerator {
+    private static final String JACKSON_ANNOTATION_PREFIX = "com.fasterxml.jackson.";
+
+    private final ProcessingEnvironment processingEnv;
+    private final boolean plain;
+
+    public JsonCodecGenerator(ProcessingEnvironment processingEnv) {
+        this(processingEnv, false);
+    }
+
+    /**
+     * @param plain generate Spring-free code for the embedded runtime
+     */
+    public JsonCodecGenerator(ProcessingEnvironment processingEnv, boolean plain) {
+        this.processingEnv = processingEnv;
+        this.plain = plain;
+    }
+
+    /**
+     * Name of the module generated for a service class
+     */
+    public static String moduleClassName(String serviceClassName) {
+        return serviceClassName + "JsonModule";
+    }
+
+    /**
+     * Collect the DTOs of the given service methods, in discovery order
+     */
+    public List<TypeElement> collectDtoTypes(List<ExecutableElement> methods) {
+        Map<String, TypeElement> dtos = new LinkedHashMap<>();
+        for (ExecutableElement method : methods) {
+            collect(method.getReturnType(), dtos);
+            for (VariableElement param : method.getParameters()) {
+                collect(param.asType(), dtos);
+            }
+        }
+        return new ArrayList<>(dtos.values());
+    }
+
+    /**
+     * Write the module source for the given DTOs, the file is only rewritten
+     * when its content changes.
+     *
+     * @return true if the module exists after this call
+     */
+    public boolean generate(String projectRoot, String packageName, String serviceClassName,
+                            List<TypeElement> dtos) throws IOException {
+        if (dtos.isEmpty()) {
+            return false;
+        }
+        String moduleName = moduleClassName(serviceClassName);
+        File packageDir = new File(projectRoot, packageName.replace('.', '/'));
+        packageDir.mkdirs();
+        File moduleFile = new File(packageDir, moduleName + ".java");
+
+        String source = render(packageName, serviceClassName, moduleName, dtos);
+        if (moduleFile.exists()
+                && new String(Files.readAllBytes(moduleFile.toPath()), StandardCharsets.UTF_8).equals(source)) {
+            return true;
+        }
+        Files.write(moduleFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+    private String render(String packageName, String serviceClassName, String moduleName, List<TypeElement> dtos) {
+        Map<TypeElement, String> codecNames = codecNames(dtos);
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import com.fasterxml.jackson.core.JsonGenerator;\n");
+        out.append("import com.fasterxml.jackson.core.JsonParser;\n");
+        out.append("import com.fasterxml.jackson.core.JsonToken;\n");
+        out.append("import com.fasterxml.jackson.core.type.TypeReference;\n");
+        out.append("import com.fasterxml.jackson.databind.BeanProperty;\n");
+        out.append("import com.fasterxml.jackson.databind.DeserializationContext;\n");
+        out.append("import com.fasterxml.jackson.databind.JavaType;\n");
+        out.append("import com.fasterxml.jackson.databind.JsonDeserializer;\n");
+        out.append("import com.fasterxml.jackson.databind.JsonMappingException;\n");
+        out.append("import com.fasterxml.jackson.databind.JsonSerializer;\n");
+        out.append("import com.fasterxml.jackson.databind.SerializerProvider;\n");
+        out.append("import com.fasterxml.jackson.databind.deser.ContextualDeserializer;\n");
+        out.append("import com.fasterxml.jackson.databind.deser.std.StdDeserializer;\n");
+        out.append("import com.fasterxml.jackson.databind.module.SimpleModule;\n");
+        out.append("import com.fasterxml.jackson.databind.ser.ContextualSerializer;\n");
+        out.append("import com.fasterxml.jackson.databind.ser.std.StdSerializer;\n");
+        out.append("import com.fasterxml.jackson.databind.type.TypeFactory;\n");
+        out.append("import com.unionhole.mcp.runtime.JsonCodecs;\n");
+        out.append(plain ? "\n" : "import org.springframework.stereotype.Component;\n\n");
+        out.append("import java.io.IOException;\n\n");
+        out.append("/**\n");
+        out.append(" * Auto-generated JSON codecs for the DTOs of ").append(serviceClassName).append("\n");
+        out.append(" *\n");
+        out.append(" * @author James Zou\n");
+        out.append(" * @version 1.0.0\n");
+        out.append(" */\n");
+        if (!plain) {
+            out.append("@Component\n");
+        }
+        out.append("public class ").append(moduleName).append(" extends SimpleModule {\n");
+        out.append("    public ").append(moduleName).append("() {\n");
+        out.append("        super(\"").append(moduleName).append("\");\n");
+        for (TypeElement dto : dtos) {
+            String type = dto.getQualifiedName().toString();
+            String codec = codecNames.get(dto);
+            out.append("        addSerializer(").append(type).append(".class, new ").append(codec).append("Serializer());\n");
+            if (isDeserializable(dto)) {
+                out.append("        addDeserializer(").append(type).append(".class, new ").append(codec).append("Deserializer());\n");
+            }
+        }
+        out.append("    }\n");
+        for (TypeElement dto : dtos) {
+            List<Property> properties = properties(dto);
+            renderSerializer(out, dto, codecNames.get(dto), properties);
+            if (isDeserializable(dto)) {
+                renderDeserializer(out, dto, codecNames.get(dto), properties);
+            }
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void renderSerializer(StringBuilder out, TypeElement dto, String codec, List<Property> properties) {
+        String type = dto.getQualifiedName().toString();
+        out.append("\n");
+        out.append("    static final class ").append(codec).append("Serializer extends StdSerializer<").append(type)
+                .append("> implements ContextualSerializer {\n");
+        out.append("        private final boolean omitNulls;\n\n");
+        out.append("        ").append(codec).append("Serializer() {\n");
+        out.append("            this(false);\n");
+        out.append("        }\n\n");
+        out.append("        ").append(codec).append("Serializer(boolean omitNulls) {\n");
+        out.append("            super(").append(type).append(".class);\n");
+        out.append("            this.omitNulls = omitNulls;\n");
+        out.append("        }\n\n");
+        out.append("        @Override\n");
+        out.append("        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)\n");
+        out.append("                throws JsonMappingException {\n");
+        out.append("            if (!JsonCodecs.supportsGeneratedCodecs(provider.getConfig(), ").append(type).append(".class)) {\n");
+        out.append("                return JsonCodecs.beanSerializer(provider, ").append(type).append(".class);\n");
+        out.append("            }\n");
+        out.append("            boolean omit = JsonCodecs.omitsNulls(provider.getConfig(), ").append(type).append(".class);\n");
+        out.append("            return omit == omitNulls ? this : new ").append(codec).append("Serializer(omit);\n");
+        out.append("        }\n\n");
+        out.append("        @Override\n");
+        out.append("        public void serialize(").append(type)
+                .append(" value, JsonGenerator gen, SerializerProvider provider) throws IOException {\n");
+        out.append("            gen.writeStartObject(value);\n");
+        for (Property property : properties) {
+            if (property.getter == null) {
+                continue;
+            }
+            String read = "value." + property.getter + "()";
+            String name = "\"" + property.name + "\"";
+            switch (property.type.getKind()) {
+                case BOOLEAN:
+                    out.append("            gen.writeBooleanField(").append(name).append(", ").append(read).append(");\n");
+                    break;
+                case INT:
+                case LONG:
+                case DOUBLE:
+                case FLOAT:
+                    out.append("            gen.writeNumberField(").append(name).append(", ").append(read).append(");\n");
+                    break;
+                case SHORT:
+                case BYTE:
+                    out.append("            gen.writeNumberField(").append(name).append(", (int) ").append(read).append(");\n");
+                    break;
+                case CHAR:
+                    out.append("            gen.writeStringField(").append(name).append(", String.valueOf(").append(read).append("));\n");
+                    break;
+                default:
+                    String local = local(property);
+                    out.append("            ").append(property.type.toString()).append(" ").append(local)
+                            .append(" = ").append(read).append(";\n");
+                    out.append("            if (").append(local).append(" != null || !omitNulls) {\n");
+                    if (isType(property.type, "java.lang.String")) {
+                        out.append("                gen.writeStringField(").append(name).append(", ").append(local).append(");\n");
+                    } else {
+                        out.append("                provider.defaultSerializeField(").append(name).append(", ").append(local).append(", gen);\n");
+                    }
+                    out.append("            }\n");
+            }
+        }
+        out.append("            gen.writeEndObject();\n");
+        out.append("        }\n");
+        out.append("    }\n");
+    }
+
+    private void renderDeserializer(StringBuilder out, TypeElement dto, String codec, List<Property> properties) {
+        String type = dto.getQualifiedName().toString();
+        boolean record = dto.getKind() == ElementKind.RECORD;
+        out.append("\n");
+        out.append("    static final class ").append(codec).append("Deserializer extends StdDeserializer<").append(type)
+                .append("> implements ContextualDeserializer {\n");
+        int index = 0;
+        Map<Property, String> javaTypes = new HashMap<>();
+        for (Property property : properties) {
+            if ((record || property.setter != null) && needsJavaType(property.type)) {
+                String constant = "TYPE_" + index++;
+                javaTypes.put(property, constant);
+                out.append("        private static final JavaType ").append(constant)
+                        .append(" = TypeFactory.defaultInstance().constructType(new TypeReference<")
+                        .append(boxed(property.type)).append(">() {});\n");
+            }
+        }
+        if (!javaTypes.isEmpty()) {
+            out.append("\n");
+        }
+        out.append("        ").append(codec).append("Deserializer() {\n");
+        out.append("            super(").append(type).append(".class);\n");
+        out.append("        }\n\n");
+        out.append("        @Override\n");
+        out.append("        public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property)\n");
+        out.append("                throws JsonMappingException {\n");
+        out.append("            return JsonCodecs.supportsGeneratedCodecs(ctxt.getConfig(), ").append(type).append(".class)\n");
+        out.append("                    ? this : JsonCodecs.beanDeserializer(ctxt, ").append(type).append(".class);\n");
+        out.append("        }\n\n");
+        out.append("        @Override\n");
+        out.append("        public ").append(type)
+                .append(" deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {\n");
+        if (record) {
+            for (Property property : properties) {
+                out.append("            ").append(property.type.toString()).append(" ").append(local(property))
+                        .append(" = ").append(defaultValue(property.type)).append(";\n");
+            }
+        } else {
+            out.append("            ").append(type).append(" value = new ").append(type).append("();\n");
+        }
+        out.append("            JsonToken token = p.currentToken();\n");
+        out.append("            if (token == JsonToken.START_OBJECT) {\n");
+        out.append("                token = p.nextToken();\n");
+        out.append("            }\n");
+        out.append("            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {\n");
+        out.append("                String field = p.currentName();\n");
+        out.append("                p.nextToken();\n");
+        out.append("                switch (field) {\n");
+        for (Property property : properties) {
+            if (!record && property.setter == null) {
+                continue;
+            }
+            String read = readExpression(property.type, javaTypes.get(property));
+            out.append("                    case \"").append(property.name).append("\":\n");
+            if (record) {
+                out.append("                        ").append(local(property)).append(" = ").append(read).append(";\n");
+            } else {
+                out.append("                        value.").append(property.setter).append("(").append(read).append(");\n");
+            }
+            out.append("                        break;\n");
+        }
+        out.append("                    default:\n");
+        out.append("                        ctxt.handleUnknownProperty(p, this, ")
+                .append(record ? type + ".class" : "value").append(", field);\n");
+        out.append("                }\n");
+        out.append("            }\n");
+        if (record) {
+            StringJoiner args = new StringJoiner(", ");
+            for (Property property : properties) {
+                args.add(local(property));
+            }
+            out.append("            return new ").append(type).append("(").append(args).append(");\n");
+        } else {
+            out.append("            return value;\n");
+        }
+        out.append("        }\n");
+        out.append("    }\n");
+    }
+
+    private String readExpression(TypeMirror type, String javaTypeConstant) {
+        // 原生 token 直接读取，其余交给 Jackson，保持它的类型转换和空值规则
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "p.currentToken() == JsonToken.VALUE_TRUE"
+                        + " || (p.currentToken() != JsonToken.VALUE_FALSE && ctxt.readValue(p, boolean.class))";
+            case INT:
+                return "p.currentToken() == JsonToken.VALUE_NUMBER_INT ? p.getIntValue() : ctxt.readValue(p, int.class)";
+            case LONG:
+                return "p.currentToken() == JsonToken.VALUE_NUMBER_INT ? p.getLongValue() : ctxt.readValue(p, long.class)";
+            case DOUBLE:
+                return "p.currentToken().isNumeric() ? p.getDoubleValue() : ctxt.readValue(p, double.class)";
+            case FLOAT:
+                return "p.currentToken().isNumeric() ? p.getFloatValue() : ctxt.readValue(p, float.class)";
+            case SHORT:
+            case BYTE:
+                return "ctxt.readValue(p, " + type.getKind().name().toLowerCase(Locale.ROOT) + ".class)";
+            default:
+                break;
+        }
+        if (isType(type, "java.lang.String")) {
+            return "p.currentToken() == JsonToken.VALUE_STRING ? p.getText()"
+                    + " : p.currentToken() == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, String.class)";
+        }
+        String target = javaTypeConstant != null
+                ? javaTypeConstant
+                : processingEnv.getTypeUtils().erasure(type) + ".class";
+        if (type.getKind() == TypeKind.CHAR) {
+            return "ctxt.readValue(p, " + target + ")";
+        }
+        return "p.currentToken() == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, " + target + ")";
+    }
+
+    private boolean needsJavaType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return needsJavaType(((ArrayType) type).getComponentType());
+        }
+        return type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty();
+    }
+
+    private void collect(TypeMirror type, Map<String, TypeElement> dtos) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            collect(((ArrayType) type).getComponentType(), dtos);
+            return;
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        DeclaredType declared = (DeclaredType) type;
+        for (TypeMirror argument : declared.getTypeArguments()) {
+            collect(argument, dtos);
+        }
+        TypeElement element = (TypeElement) declared.asElement();
+        String name = element.getQualifiedName().toString();
+        if (dtos.containsKey(name) || !isDto(element)) {
+            return;
+        }
+        dtos.put(name, element);
+        for (Property property : properties(element)) {
+            collect(property.type, dtos);
+        }
+    }
+
+    private boolean isDto(TypeElement element) {
+        String name = element.getQualifiedName().toString();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("com.fasterxml.") || name.startsWith("com.unionhole.mcp.")) {
+            return false;
+        }
+        if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
+            return false;
+        }
+        Set<Modifier> modifiers = element.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)
+                || !element.getTypeParameters().isEmpty()) {
+            return false;
+        }
+        if (element.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)) {
+            return false;
+        }
+        if (element.getNestingKind() == NestingKind.LOCAL || element.getNestingKind() == NestingKind.ANONYMOUS) {
+            return false;
+        }
+        // 集合和 Map 的子类按容器序列化，不能当作 bean 处理
+        if (isSubtypeOf(element, "java.lang.Iterable") || isSubtypeOf(element, "java.util.Map")) {
+            return false;
+        }
+        // 带有 Jackson 注解的类型交给 Jackson 自身处理，避免语义不一致
+        if (hasJacksonAnnotation(element)) {
+            return false;
+        }
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (hasJacksonAnnotation(enclosed)) {
+                return false;
+            }
+        }
+        // 公有字段也是 Jackson 的属性，生成的编解码器只处理 getter/setter
+        for (VariableElement field : ElementFilter.fieldsIn(processingEnv.getElementUtils().getAllMembers(element))) {
+            if (field.getModifiers().contains(Modifier.PUBLIC) && !field.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+        }
+        List<Property> properties = properties(element);
+        if (properties.isEmpty()) {
+            return false;
+        }
+        Set<String> names = new HashSet<>();
+        for (Property property : properties) {
+            names.add(property.name);
+        }
+        // 同名的 getter 冲突，以及 record 在组件之外的 getter，交给 Jackson 处理
+        for (ExecutableElement method : accessors(element)) {
+            String getter = getterName(method);
+            if (getter != null && (!names.contains(getter) || !isChosenGetter(properties, getter, method))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isChosenGetter(List<Property> properties, String name, ExecutableElement method) {
+        for (Property property : properties) {
+            if (property.name.equals(name)) {
+                return property.getter.equals(method.getSimpleName().toString());
+            }
+        }
+        return false;
+    }
+
+    private boolean hasJacksonAnnotation(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().toString().startsWith(JACKSON_ANNOTATION_PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isDeserializable(TypeElement element) {
+        if (element.getKind() == ElementKind.RECORD) {
+            return true;
+        }
+        boolean constructible = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                constructible = true;
+            }
+        }
+        if (!constructible) {
+            return false;
+        }
+        // 只读属性、只写属性和重载的 setter 在 Jackson 中各有规则，这些类型不生成反序列化器
+        List<Property> properties = properties(element);
+        Set<String> setters = new HashSet<>();
+        for (Property property : properties) {
+            if (property.setter == null) {
+                return false;
+            }
+            setters.add(property.setter);
+        }
+        for (ExecutableElement method : accessors(element)) {
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().size() == 1 && methodName.startsWith("set") && methodName.length() > 3
+                    && !setters.remove(methodName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Property> properties(TypeElement element) {
+        List<Property> properties = new ArrayList<>();
+        if (element.getKind() == ElementKind.RECORD) {
+            for (RecordComponentElement component : element.getRecordComponents()) {
+                String name = component.getSimpleName().toString();
+                properties.add(new Property(name, component.asType(), name, null));
+            }
+            return properties;
+        }
+
+        Map<String, Property> byName = new LinkedHashMap<>();
+        List<ExecutableElement> methods = accessors(element);
+        for (ExecutableElement method : methods) {
+            String name = getterName(method);
+            if (name != null && !byName.containsKey(name)) {
+                byName.put(name, new Property(name, method.getReturnType(), method.getSimpleName().toString(), null));
+            }
+        }
+        for (ExecutableElement method : methods) {
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().size() != 1 || !methodName.startsWith("set") || methodName.length() <= 3) {
+                continue;
+            }
+            Property property = byName.get(propertyName(methodName.substring(3)));
+            if (property != null && property.setter == null && processingEnv.getTypeUtils()
+                    .isSameType(property.type, method.getParameters().get(0).asType())) {
+                property.setter = methodName;
+            }
+        }
+        properties.addAll(byName.values());
+        return properties;
+    }
+
+    /**
+     * Public instance methods of a type, including inherited ones
+     */
+    private List<ExecutableElement> accessors(TypeElement element) {
+        List<ExecutableElement> accessors = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(element))) {
+            if (method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)) {
+                accessors.add(method);
+            }
+        }
+        return accessors;
+    }
+
+    /**
+     * Property name of a getter by Jackson's default rules, null if the method is no getter
+     */
+    private static String getterName(ExecutableElement method) {
+        if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID) {
+            return null;
+        }
+        String methodName = method.getSimpleName().toString();
+        if (methodName.startsWith("get") && methodName.length() > 3 && !methodName.equals("getClass")) {
+            return propertyName(methodName.substring(3));
+        }
+        if (methodName.startsWith("is") && methodName.length() > 2
+                && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+            return propertyName(methodName.substring(2));
+        }
+        return null;
+    }
+
+    /**
+     * Same rule as Jackson's default bean naming: lower-case the leading upper-case run
+     */
+    private static String propertyName(String raw) {
+        StringBuilder name = new StringBuilder(raw.length());
+        int i = 0;
+        while (i < raw.length() && Character.isUpperCase(raw.charAt(i))) {
+            name.append(Character.toLowerCase(raw.charAt(i)));
+            i++;
+        }
+        return name.append(raw, i, raw.length()).toString();
+    }
+
+    private Map<TypeElement, String> codecNames(List<TypeElement> dtos) {
+        Map<TypeElement, String> names = new HashMap<>();
+        Set<String> used = new HashSet<>();
+        for (TypeElement dto : dtos) {
+            String base = dto.getSimpleName().toString();
+            String name = base;
+            for (int i = 2; !used.add(name); i++) {
+                name = base + i;
+            }
+            names.put(dto, name);
+        }
+        return names;
+    }
+
+    private boolean isSubtypeOf(TypeElement element, String qualifiedName) {
+        Types types = processingEnv.getTypeUtils();
+        return types.isAssignable(types.erasure(element.asType()),
+                types.erasure(processingEnv.getElementUtils().getTypeElement(qualifiedName).asType()));
+    }
+
+    private boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private static String local(Property property) {
+        return "_" + property.name;
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case INT:
+            case SHORT:
+            case BYTE:
+            case CHAR:
+                return "0";
+            case LONG:
+                return "0L";
+            case DOUBLE:
+                return "0D";
+            case FLOAT:
+                return "0F";
+            default:
+                return "null";
+        }
+    }
+
+    private static final class Property {
+        private final String name;
+        private final TypeMirror type;
+        private final String getter;
+        private String setter;
+
+        private Property(String name, TypeMirror type, String getter, String setter) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
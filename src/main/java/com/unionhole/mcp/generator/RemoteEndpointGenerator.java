@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.generator;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Generates {@code <Service>Endpoint} for services in remote mode, the node
+ * side of a remote facade. It registers every public service method on a
+ * {@code com.unionhole.mcp.remote.ServiceNode} under
+ * {@code Service.method/arity}, the key the remote facade calls, and can
+ * start an in-process stand-in node for tests.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class RemoteEndpointGenerator {
+    private static final String CALL_CONTEXT = "com.unionhole.mcp.runtime.CallContext";
+
+    private final ProcessingEnvironment processingEnv;
+    private final ToolRegistryGenerator bindings;
+
+    public RemoteEndpointGenerator(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+        this.bindings = new ToolRegistryGenerator(processingEnv, true);
+    }
+
+    /**
+     * Key of a service method on the node, e.g. {@code getWeather/1}
+     */
+    public static String methodKey(ExecutableElement method) {
+        return method.getSimpleName() + "/" + method.getParameters().size();
+    }
+
+    public void generate(String projectRoot, String packageName, TypeElement service) throws IOException {
+        String serviceClassName = service.getSimpleName().toString();
+        String className = serviceClassName + "Endpoint";
+        File packageDir = new File(projectRoot, packageName.replace('.', '/'));
+        packageDir.mkdirs();
+        File file = new File(packageDir, className + ".java");
+
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import com.fasterxml.jackson.core.type.TypeReference;\n");
+        out.append("import com.unionhole.mcp.remote.RemoteClient;\n");
+        out.append("import com.unionhole.mcp.remote.ServiceNode;\n");
+        out.append("import ").append(service.getQualifiedName()).append(";\n\n");
+        out.append("import java.io.IOException;\n");
+        out.append("import java.net.InetAddress;\n");
+        out.append("import java.net.InetSocketAddress;\n\n");
+        out.append("/**\n");
+        out.append(" * Auto-generated service node endpoint of ").append(serviceClassName).append("\n");
+        out.append(" *\n");
+        out.append(" * @author James Zou\n");
+        out.append(" * @version 1.0.0\n");
+        out.append(" */\n");
+        out.append("public final class ").append(className).append(" {\n");
+        out.append("    private ").append(className).append("() {\n");
+        out.append("    }\n\n");
+        out.append("    public static ServiceNode register(ServiceNode node, ").append(serviceClassName)
+                .append(" service) {\n");
+        Set<String> keys = new HashSet<>();
+        for (Element enclosed : service.getEnclosedElements()) {
+            if (enclosed.getKind() != ElementKind.METHOD || !enclosed.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) enclosed;
+            // 同名同参数个数的重载无法按名称绑定参数，只注册第一个
+            if (!keys.add(methodKey(method))) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Overload " + serviceClassName + "." + methodKey(method)
+                                + " is not reachable in remote mode, overloads need distinct arities", method);
+                continue;
+            }
+            renderRegistration(out, serviceClassName, method);
+        }
+        out.append("        return node;\n");
+        out.append("    }\n\n");
+        out.append("    /**\n");
+        out.append("     * Start a stand-in node on a loopback port and add it to the remote client\n");
+        out.append("     */\n");
+        out.append("    public static ServiceNode standIn(").append(serviceClassName)
+                .append(" service) throws IOException {\n");
+        out.append("        ServiceNode node = register(new ServiceNode(), service)\n");
+        out.append("                .start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));\n");
+        out.append("        RemoteClient.get(\"").append(serviceClassName).append("\").addNode(node.getAddress());\n");
+        out.append("        return node;\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        String source = out.toString();
+        if (file.exists() && new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).equals(source)) {
+            return;
+        }
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void renderRegistration(StringBuilder out, String serviceClassName, ExecutableElement method) {
+        // CallContext 参数传入节点上的调用上下文，携带调用方剩余的截止时间
+        StringJoiner args = new StringJoiner(",\n                        ");
+        for (VariableElement param : method.getParameters()) {
+            if (processingEnv.getTypeUtils().erasure(param.asType()).toString().equals(CALL_CONTEXT)) {
+                args.add(CALL_CONTEXT + ".current()");
+            } else {
+                args.add(bindings.bindArguments(List.of(new ToolParameter(param.getSimpleName().toString(),
+                        param.asType())), ""));
+            }
+        }
+        String call = method.getParameters().isEmpty()
+                ? "service." + method.getSimpleName() + "()"
+                : "service." + method.getSimpleName() + "(\n                        " + args + ")";
+        // Stream 不能直接序列化，在节点端收集为列表；Iterator 由 Jackson 逐个写出
+        String erasure = processingEnv.getTypeUtils().erasure(method.getReturnType()).toString();
+        if (erasure.equals("java.util.stream.Stream")) {
+            call += ".collect(java.util.stream.Collectors.toList())";
+        }
+        // Reactor 类型转为 future，节点在其完成时回复
+        if (erasure.equals("reactor.core.publisher.Mono")) {
+            call += ".toFuture()";
+        } else if (erasure.equals("reactor.core.publisher.Flux")) {
+            call += ".collectList().toFuture()";
+        }
+        out.append("        node.register(\"").append(serviceClassName).append(".").append(methodKey(method))
+                .append("\",\n");
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            out.append("                request -> {\n");
+            out.append("                    ").append(call).append(";\n");
+            out.append("                    return null;\n");
+            out.append("                });\n");
+        } else {
+            out.append("                request -> ").append(call).append(");\n");
+        }
+    }
+}
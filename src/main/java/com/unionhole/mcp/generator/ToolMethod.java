@@ -0,0 +1,121 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.generator;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+
+/**
+ * Signature of a generated facade method (one MCP tool), as resolved by the
+ * processor from the service method and its annotations. Shared by the
+ * generators that call facades, so they agree with the facade source.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class ToolMethod {
+    private final ExecutableElement serviceMethod;
+    private final String name;
+    private final String toolName;
+    private final String description;
+    private final String returnType;
+    private final List<ToolParameter> parameters;
+    private final TypeMirror asyncResultType;
+
+    /**
+     * @param asyncResultType value type the CompletableFuture, CompletionStage, Mono
+     *                        or Flux returned by the service method completes with,
+     *                        null for synchronous methods
+     */
+    public ToolMethod(ExecutableElement serviceMethod, String name, String description,
+                      String returnType, List<ToolParameter> parameters, TypeMirror asyncResultType) {
+        this(serviceMethod, name, name, description, returnType, parameters, asyncResultType);
+    }
+
+    /**
+     * @param toolName name the tool is registered under, qualified for overloaded methods
+     */
+    public ToolMethod(ExecutableElement serviceMethod, String name, String toolName, String description,
+                      String returnType, List<ToolParameter> parameters, TypeMirror asyncResultType) {
+        this.serviceMethod = serviceMethod;
+        this.name = name;
+        this.toolName = toolName;
+        this.description = description;
+        this.returnType = returnType;
+        this.parameters = parameters;
+        this.asyncResultType = asyncResultType;
+    }
+
+    public ExecutableElement getServiceMethod() {
+        return serviceMethod;
+    }
+
+    /**
+     * Name of the facade method
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Name of the tool in the registry, unique within the facade
+     */
+    public String getToolName() {
+        return toolName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Return type of the facade method as written in generated source
+     */
+    public String getReturnType() {
+        return returnType;
+    }
+
+    public List<ToolParameter> getParameters() {
+        return parameters;
+    }
+
+    public boolean isVoid() {
+        return serviceMethod.getReturnType().getKind() == TypeKind.VOID;
+    }
+
+    /**
+     * Whether the facade returns the service result type unchanged, asynchronous
+     * results count as unchanged as they are never paged, cached or spilled
+     */
+    public boolean returnsServiceType() {
+        return isAsync() || returnType.equals(serviceMethod.getReturnType().toString());
+    }
+
+    public boolean isAsync() {
+        return asyncResultType != null;
+    }
+
+    /**
+     * Type of the value the tool produces: the completion value of an
+     * asynchronous method, otherwise the service return type
+     */
+    public TypeMirror getResultType() {
+        return isAsync() ? asyncResultType : serviceMethod.getReturnType();
+    }
+}
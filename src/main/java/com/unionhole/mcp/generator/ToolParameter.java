@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.generator;
+
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Parameter of a generated facade method
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class ToolParameter {
+    private final String name;
+    private final TypeMirror type;
+
+    public ToolParameter(String name, TypeMirror type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TypeMirror getType() {
+        return type;
+    }
+
+    /**
+     * Type as written in generated source
+     */
+    public String getTypeName() {
+        return type.toString();
+    }
+}
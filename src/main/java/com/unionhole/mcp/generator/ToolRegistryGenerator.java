@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.generator;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Generates {@code <Facade>Tools}, which registers every tool of a facade in
+ * {@code com.unionhole.mcp.runtime.ToolRegistry} with the JSON schema of its
+ * arguments and a handler that binds the arguments and calls the typed facade
+ * method. Batch execution and other name-based dispatch go through it.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class ToolRegistryGenerator {
+    private static final Set<String> INTEGER_TYPES = Set.of(
+        "java.lang.Integer", "java.lang.Long", "java.lang.Short", "java.lang.Byte", "java.math.BigInteger"
+    );
+    private static final Set<String> NUMBER_TYPES = Set.of(
+        "java.lang.Double", "java.lang.Float", "java.math.BigDecimal"
+    );
+
+    private final ProcessingEnvironment processingEnv;
+    private final boolean plain;
+
+    public ToolRegistryGenerator(ProcessingEnvironment processingEnv) {
+        this(processingEnv, false);
+    }
+
+    /**
+     * @param plain generate Spring-free code for the embedded runtime
+     */
+    public ToolRegistryGenerator(ProcessingEnvironment processingEnv, boolean plain) {
+        this.processingEnv = processingEnv;
+        this.plain = plain;
+    }
+
+    public void generate(String projectRoot, String packageName, String facadeClassName,
+                         List<ToolMethod> tools) throws IOException {
+        String className = facadeClassName + "Tools";
+        File packageDir = new File(projectRoot, packageName.replace('.', '/'));
+        packageDir.mkdirs();
+        File file = new File(packageDir, className + ".java");
+
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import com.fasterxml.jackson.core.type.TypeReference;\n");
+        out.append("import com.unionhole.mcp.runtime.ToolDefinition;\n");
+        out.append("import com.unionhole.mcp.runtime.ToolRegistry;\n");
+        out.append(plain ? "\n" : "import org.springframework.stereotype.Component;\n\n");
+        out.append("/**\n");
+        out.append(" * Auto-generated tool registrations of ").append(facadeClassName).append("\n");
+        out.append(" *\n");
+        out.append(" * @author James Zou\n");
+        out.append(" * @version 1.0.0\n");
+        out.append(" */\n");
+        if (!plain) {
+            out.append("@Component\n");
+        }
+        out.append("public class ").append(className).append(" {\n");
+        out.append("    public ").append(className).append("(").append(facadeClassName).append(" facade) {\n");
+        out.append("        register(facade);\n");
+        out.append("    }\n\n");
+        out.append("    public static void register(").append(facadeClassName).append(" facade) {\n");
+        for (ToolMethod tool : tools) {
+            renderRegistration(out, facadeClassName, tool);
+        }
+        out.append("    }\n");
+        out.append("}\n");
+
+        String source = out.toString();
+        if (file.exists() && new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).equals(source)) {
+            return;
+        }
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void renderRegistration(StringBuilder out, String facadeClassName, ToolMethod tool) {
+        out.append("        ToolRegistry.register(new ToolDefinition(\"").append(tool.getToolName()).append("\", ")
+                .append(javaString(tool.getDescription())).append(",\n");
+        out.append("                ").append(javaString(inputSchema(tool))).append(", ")
+                .append(facadeClassName).append(".class,\n");
+        String call = tool.getParameters().isEmpty()
+                ? "facade." + tool.getName() + "()"
+                : "facade." + tool.getName() + "(\n                        "
+                        + bindArguments(tool.getParameters(), ",\n                        ") + ")";
+        if (tool.isVoid()) {
+            out.append("                request -> {\n");
+            out.append("                    ").append(call).append(";\n");
+            out.append("                    return null;\n");
+            out.append("                }));\n");
+        } else {
+            out.append("                request -> ").append(call).append("));\n");
+        }
+    }
+
+    /**
+     * Expressions binding the parameters from {@code request}, primitives are required
+     */
+    String bindArguments(List<ToolParameter> parameters, String separator) {
+        StringJoiner args = new StringJoiner(separator);
+        for (ToolParameter param : parameters) {
+            TypeMirror type = param.getType();
+            if (type.getKind().isPrimitive()) {
+                args.add("request.getRequiredParameter(\"" + param.getName() + "\", " + boxed(type) + ".class)");
+            } else {
+                args.add("request.getParameter(\"" + param.getName() + "\", " + typeToken(type) + ")");
+            }
+        }
+        return args.toString();
+    }
+
+    /**
+     * JSON schema of the arguments object, primitive parameters are required
+     */
+    private String inputSchema(ToolMethod tool) {
+        StringJoiner properties = new StringJoiner(",", "{", "}");
+        StringJoiner required = new StringJoiner(",", "[", "]");
+        for (ToolParameter param : tool.getParameters()) {
+            properties.add("\"" + param.getName() + "\":" + schema(param.getType()));
+            if (param.getType().getKind().isPrimitive()) {
+                required.add("\"" + param.getName() + "\"");
+            }
+        }
+        return "{\"type\":\"object\",\"properties\":" + properties + ",\"required\":" + required + "}";
+    }
+
+    private String schema(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "{\"type\":\"boolean\"}";
+            case CHAR:
+                return "{\"type\":\"string\"}";
+            case FLOAT:
+            case DOUBLE:
+                return "{\"type\":\"number\"}";
+            case ARRAY:
+                return "{\"type\":\"array\"}";
+            case DECLARED:
+                break;
+            default:
+                return type.getKind().isPrimitive() ? "{\"type\":\"integer\"}" : "{}";
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        if (name.equals("java.lang.String") || name.equals("java.lang.CharSequence")
+                || name.equals("java.lang.Character")) {
+            return "{\"type\":\"string\"}";
+        }
+        if (name.equals("java.lang.Boolean")) {
+            return "{\"type\":\"boolean\"}";
+        }
+        if (INTEGER_TYPES.contains(name)) {
+            return "{\"type\":\"integer\"}";
+        }
+        if (NUMBER_TYPES.contains(name)) {
+            return "{\"type\":\"number\"}";
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            StringJoiner constants = new StringJoiner(",", "[", "]");
+            for (Element enclosed : element.getEnclosedElements()) {
+                if (enclosed.getKind() == ElementKind.ENUM_CONSTANT) {
+                    constants.add("\"" + enclosed.getSimpleName() + "\"");
+                }
+            }
+            return "{\"type\":\"string\",\"enum\":" + constants + "}";
+        }
+        TypeMirror erasure = types.erasure(type);
+        if (types.isAssignable(erasure, erasure("java.util.Collection"))) {
+            return "{\"type\":\"array\"}";
+        }
+        return "{\"type\":\"object\"}";
+    }
+
+    private TypeMirror erasure(String qualifiedName) {
+        return processingEnv.getTypeUtils().erasure(
+                processingEnv.getElementUtils().getTypeElement(qualifiedName).asType());
+    }
+
+    private String typeToken(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return "new TypeReference<" + type + ">() {}";
+        }
+        return boxed(processingEnv.getTypeUtils().erasure(type)) + ".class";
+    }
+
+    String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private static String javaString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.generator;
+
+import com.unionhole.mcp.annotation.MCPMethod;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Generates {@code <Facade>Warmup}, a Spring component that runs
+ * {@code com.unionhole.mcp.runtime.Warmup} for every tool of a facade once all
+ * singletons are created, i.e. before the web server accepts traffic.
+ * Arguments are bound through {@code MCPRequest}; only {@code readOnly}
+ * methods are dispatched to the facade.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class WarmupGenerator {
+    private static final Set<String> NUMBER_TYPES = Set.of(
+        "java.lang.Integer", "java.lang.Long", "java.lang.Short", "java.lang.Byte",
+        "java.lang.Double", "java.lang.Float", "java.math.BigDecimal", "java.math.BigInteger"
+    );
+
+    private final ProcessingEnvironment processingEnv;
+    private final boolean plain;
+
+    public WarmupGenerator(ProcessingEnvironment processingEnv) {
+        this(processingEnv, false);
+    }
+
+    /**
+     * @param plain generate Spring-free code for the embedded runtime
+     */
+    public WarmupGenerator(ProcessingEnvironment processingEnv, boolean plain) {
+        this.processingEnv = processingEnv;
+        this.plain = plain;
+    }
+
+    public void generate(String projectRoot, String packageName, String serviceClassName,
+                         String facadeClassName, List<ToolMethod> tools) throws IOException {
+        String className = facadeClassName + "Warmup";
+        File packageDir = new File(projectRoot, packageName.replace('.', '/'));
+        packageDir.mkdirs();
+        File file = new File(packageDir, className + ".java");
+
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import com.fasterxml.jackson.core.type.TypeReference;\n");
+        out.append("import com.unionhole.mcp.runtime.Warmup;\n");
+        if (plain) {
+            out.append("\n");
+        } else {
+            out.append("import org.springframework.beans.factory.SmartInitializingSingleton;\n");
+            out.append("import org.springframework.beans.factory.annotation.Autowired;\n");
+            out.append("import org.springframework.stereotype.Component;\n\n");
+        }
+        out.append("import java.util.Arrays;\n\n");
+        out.append("/**\n");
+        out.append(" * Auto-generated warm-up of ").append(facadeClassName).append("\n");
+        out.append(" *\n");
+        out.append(" * @author James Zou\n");
+        out.append(" * @version 1.0.0\n");
+        out.append(" */\n");
+        if (plain) {
+            // 嵌入式运行时没有容器回调，由启动代码在开始服务之前调用 run()
+            out.append("public class ").append(className).append(" implements Runnable {\n");
+            out.append("    private final ").append(facadeClassName).append(" facade;\n\n");
+            out.append("    public ").append(className).append("(").append(facadeClassName).append(" facade) {\n");
+            out.append("        this.facade = facade;\n");
+            out.append("    }\n\n");
+            out.append("    @Override\n");
+            out.append("    public void run() {\n");
+        } else {
+            out.append("@Component\n");
+            out.append("public class ").append(className).append(" implements SmartInitializingSingleton {\n");
+            out.append("    @Autowired\n");
+            out.append("    private ").append(facadeClassName).append(" facade;\n\n");
+            out.append("    @Override\n");
+            out.append("    public void afterSingletonsInstantiated() {\n");
+        }
+        out.append("        Warmup.run(\"").append(serviceClassName).append("\", Arrays.asList(");
+        for (int i = 0; i < tools.size(); i++) {
+            out.append(i == 0 ? "\n" : ",\n");
+            renderStep(out, tools.get(i));
+        }
+        out.append("\n        ));\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        String source = out.toString();
+        if (file.exists() && new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).equals(source)) {
+            return;
+        }
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void renderStep(StringBuilder out, ToolMethod tool) {
+        MCPMethod annotation = tool.getServiceMethod().getAnnotation(MCPMethod.class);
+        boolean dispatch = annotation != null && annotation.readOnly();
+
+        StringJoiner synthetic = new StringJoiner(",", "{", "}");
+        for (ToolParameter param : tool.getParameters()) {
+            synthetic.add("\"" + param.getName() + "\":" + sampleJson(param.getType()));
+        }
+        StringJoiner samples = new StringJoiner(", ", "new String[]{", "}");
+        if (annotation != null) {
+            for (String sample : annotation.warmupArgs()) {
+                samples.add(javaString(sample));
+            }
+        }
+
+        out.append("                Warmup.step(\"").append(tool.getToolName()).append("\", ")
+                .append(javaString(synthetic.toString())).append(", ").append(samples).append(", request -> {\n");
+        StringJoiner args = new StringJoiner(", ");
+        for (ToolParameter param : tool.getParameters()) {
+            out.append("                    ").append(param.getTypeName()).append(" ").append(param.getName())
+                    .append(" = request.getParameter(\"").append(param.getName()).append("\", ")
+                    .append(typeToken(param.getType())).append(");\n");
+            args.add(param.getName());
+        }
+        String call = "facade." + tool.getName() + "(" + args + ")";
+        if (!dispatch) {
+            out.append("                    return Warmup.NOT_DISPATCHED;\n");
+        } else if (tool.isVoid()) {
+            out.append("                    ").append(call).append(";\n");
+            out.append("                    return null;\n");
+        } else {
+            out.append("                    return ").append(call).append(";\n");
+        }
+        out.append("                }, ");
+
+        TypeMirror returnType = tool.getResultType();
+        String sampleResult = tool.isVoid() || !tool.returnsServiceType() ? "null" : sampleJson(returnType);
+        if ("null".equals(sampleResult)) {
+            out.append("null, null)");
+        } else {
+            out.append(javaString(sampleResult)).append(", new TypeReference<").append(boxed(returnType))
+                    .append(">() {})");
+        }
+    }
+
+    /**
+     * A JSON value the given type can be bound from
+     */
+    private String sampleJson(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case CHAR:
+                return "\"a\"";
+            case ARRAY:
+                return "[]";
+            case DECLARED:
+                break;
+            default:
+                return type.getKind().isPrimitive() ? "0" : "null";
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        if (name.equals("java.lang.String") || name.equals("java.lang.CharSequence")) {
+            return "\"\"";
+        }
+        if (name.equals("java.lang.Boolean")) {
+            return "false";
+        }
+        if (name.equals("java.lang.Character")) {
+            return "\"a\"";
+        }
+        if (NUMBER_TYPES.contains(name)) {
+            return "0";
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            for (Element enclosed : element.getEnclosedElements()) {
+                if (enclosed.getKind() == ElementKind.ENUM_CONSTANT) {
+                    return "\"" + enclosed.getSimpleName() + "\"";
+                }
+            }
+            return "null";
+        }
+        TypeMirror erasure = types.erasure(type);
+        if (types.isAssignable(erasure, erasure("java.util.Collection"))) {
+            return "[]";
+        }
+        if (types.isAssignable(erasure, erasure("java.util.Map"))) {
+            return "{}";
+        }
+        if (name.startsWith("java.") || name.startsWith("javax.")) {
+            return "null";
+        }
+        return element.getKind() == ElementKind.CLASS || element.getKind() == ElementKind.RECORD ? "{}" : "null";
+    }
+
+    private TypeMirror erasure(String qualifiedName) {
+        return processingEnv.getTypeUtils().erasure(
+                processingEnv.getElementUtils().getTypeElement(qualifiedName).asType());
+    }
+
+    private String typeToken(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return "new TypeReference<" + type + ">() {}";
+        }
+        return boxed(processingEnv.getTypeUtils().erasure(type)) + ".class";
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private static String javaString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
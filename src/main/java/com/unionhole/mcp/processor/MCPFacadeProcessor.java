@@ -15,6 +15,7 @@
  */
 package com.unionhole.mcp.processor;
 
+import com.unionhole.mcp.annotation.MCPCircuitBreaker;
 import com.unionhole.mcp.annotation.MCPMethod;
 import com.unionhole.mcp.annotation.MCPService;
 import com.google.auto.service.AutoService;
@@ -22,6 +23,14 @@ import com.google.auto.service.AutoService;
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import java.io.*;
 import java.util.*;
 import java.nio.file.*;
@@ -30,6 +39,12 @@ import java.util.stream.Collectors;
 import com.sun.source.doctree.DocCommentTree;
 import com.sun.source.util.DocTrees;
 import com.unionhole.mcp.generator.DemoProjectGenerator;
+import com.unionhole.mcp.generator.JsonCodecGenerator;
+import com.unionhole.mcp.generator.RemoteEndpointGenerator;
+import com.unionhole.mcp.generator.ToolMethod;
+import com.unionhole.mcp.generator.ToolParameter;
+import com.unionhole.mcp.generator.ToolRegistryGenerator;
+import com.unionhole.mcp.generator.WarmupGenerator;
 
 /**
  * Annotation processor for generating MCP Facade classes
@@ -44,14 +59,34 @@ import com.unionhole.mcp.generator.DemoProjectGenerator;
     "com.unionhole.mcp.annotation.MCPMethod"
 })
 @SupportedSourceVersion(SourceVersion.RELEASE_17)
+@SupportedOptions({"mcp.demo.output", "mcpConfigFile", "mcp.runtime"})
 public class MCPFacadeProcessor extends AbstractProcessor {
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+    private static final int DEFAULT_PRIORITY = 5;
+    private static final String REMOTE_CLIENT = "REMOTE_CLIENT";
+    private static final String CALL_CONTEXT = "com.unionhole.mcp.runtime.CallContext";
+    private static final Set<String> STREAMING_RETURN_TYPES = Set.of(
+        "java.util.stream.Stream",
+        "java.util.Iterator"
+    );
+    // 异步返回类型及其转换为 CompletableFuture 的方式
+    private static final Map<String, String> ASYNC_RETURN_TYPES = Map.of(
+        "java.util.concurrent.CompletableFuture", "",
+        "java.util.concurrent.CompletionStage", ".toCompletableFuture()",
+        "reactor.core.publisher.Mono", ".toFuture()",
+        "reactor.core.publisher.Flux", ".collectList().toFuture()"
+    );
+
     private DocTrees docTrees;
+    // mcp.runtime=plain 时生成不依赖 Spring 的代码，供嵌入式运行时使用
+    private boolean plain;
     private Map<String, Set<String>> existingFacadeMethods = new HashMap<>();
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
         this.docTrees = DocTrees.instance(processingEnv);
+        this.plain = "plain".equalsIgnoreCase(processingEnv.getOptions().get("mcp.runtime"));
         
         // 检查是否需要生成demo项目
         Map<String, String> options = processingEnv.getOptions();
@@ -133,6 +168,11 @@ public class MCPFacadeProcessor extends AbstractProcessor {
                 String facadeClassName = typeElement.getSimpleName().toString() + "Facade";
                 String methodName = methodElement.getSimpleName().toString();
                 
+                // 分页重载方法由对应的分页工具调用，不单独生成
+                if (isPagedOverload(methodElement)) {
+                    continue;
+                }
+
                 // 检查方法是否已存在
                 if (existingFacadeMethods.containsKey(facadeClassName) && 
                     existingFacadeMethods.get(facadeClassName).contains(methodName)) {
@@ -165,9 +205,31 @@ public class MCPFacadeProcessor extends AbstractProcessor {
             if (!facadeFile.exists()) {
                 generateNewFacadeClass(projectRoot, targetPackage, className, facadeClassName, typeElement);
             } else {
-                // 如果文件存在，读取现有方法
+                // 如果文件存在，读取现有方法，并刷新 DTO 编解码模块
+                loadExistingMethods(facadeFile, facadeClassName);
+                generateJsonModule(projectRoot, targetPackage, className, typeElement);
+            }
+
+            // 生成工具注册表和预热组件，只包含 Facade 中已存在的方法
+            if (!existingFacadeMethods.containsKey(facadeClassName)) {
                 loadExistingMethods(facadeFile, facadeClassName);
             }
+            Set<String> facadeMethods = existingFacadeMethods.get(facadeClassName);
+            List<ToolMethod> tools = new ArrayList<>();
+            for (Element enclosed : typeElement.getEnclosedElements()) {
+                if (enclosed.getKind() == ElementKind.METHOD && enclosed.getModifiers().contains(Modifier.PUBLIC)
+                        && facadeMethods.contains(enclosed.getSimpleName().toString())
+                        && !isPagedOverload((ExecutableElement) enclosed)) {
+                    tools.add(toToolMethod((ExecutableElement) enclosed));
+                }
+            }
+            new ToolRegistryGenerator(processingEnv, plain).generate(projectRoot, targetPackage, facadeClassName, tools);
+            if (isRemote(annotation)) {
+                new RemoteEndpointGenerator(processingEnv).generate(projectRoot, targetPackage, typeElement);
+            }
+            if (annotation.warmup()) {
+                new WarmupGenerator(processingEnv, plain).generate(projectRoot, targetPackage, className, facadeClassName, tools);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -259,44 +321,210 @@ public class MCPFacadeProcessor extends AbstractProcessor {
 
     private List<String> generateMethodLines(ExecutableElement method) {
         List<String> lines = new ArrayList<>();
-        String methodName = method.getSimpleName().toString();
+        ToolMethod tool = toToolMethod(method);
+        String methodName = tool.getName();
         MCPMethod annotation = method.getAnnotation(MCPMethod.class);
-        String description = annotation != null && !annotation.description().isEmpty() 
-            ? annotation.description() 
-            : getMethodDescription(method);
+        MCPService serviceAnnotation = method.getEnclosingElement().getAnnotation(MCPService.class);
+        String toolId = method.getEnclosingElement().getSimpleName() + "." + methodName;
+        String constant = constantPrefix(method);
+        // Facade 方法之前生成的静态字段，以及 try 之前执行的前置检查
+        List<String> fields = new ArrayList<>();
+        List<String> guards = new ArrayList<>();
+        List<? extends VariableElement> parameters = method.getParameters();
+        boolean streaming = isStreamingReturnType(method);
+        boolean spill = isSpilled(method);
+        boolean async = isAsyncReturnType(method);
+
+        // 限流：方法级配置优先，0 表示继承服务级配置，负数表示关闭
+        double rateLimit = annotation != null && annotation.rateLimit() != 0
+                ? annotation.rateLimit()
+                : serviceAnnotation != null ? serviceAnnotation.rateLimit() : 0;
+        if (rateLimit > 0) {
+            int burst = annotation != null && annotation.rateBurst() > 0
+                    ? annotation.rateBurst()
+                    : serviceAnnotation != null ? serviceAnnotation.rateBurst() : 0;
+            String limiter = constant + "_RATE_LIMITER";
+            fields.add("    private static final com.unionhole.mcp.runtime.RateLimiter " + limiter + " =");
+            fields.add("            new com.unionhole.mcp.runtime.RateLimiter(\"" + toolId + "\", "
+                    + rateLimit + ", " + burst + ");");
+            String key = annotation != null ? annotation.rateLimitKey() : "";
+            if (!key.isEmpty() && parameters.stream().noneMatch(p -> p.getSimpleName().contentEquals(key))) {
+                processingEnv.getMessager().printMessage(javax.tools.Diagnostic.Kind.WARNING,
+                        "rateLimitKey '" + key + "' is not a parameter of " + toolId + ", using one shared bucket", method);
+                guards.add("        " + limiter + ".acquire();");
+            } else {
+                guards.add("        " + limiter + ".acquire(" + key + ");");
+            }
+        }
+
+        // 熔断：方法级启用时优先，否则使用服务级配置
+        MCPCircuitBreaker breakerConfig = annotation != null && annotation.circuitBreaker().enabled()
+                ? annotation.circuitBreaker()
+                : serviceAnnotation != null ? serviceAnnotation.circuitBreaker() : null;
+        String breaker = null;
+        if (breakerConfig != null && breakerConfig.enabled()) {
+            breaker = constant + "_CIRCUIT_BREAKER";
+            // 注册表按名称共享熔断器，重载方法使用各自的工具名，不共享同一个熔断器
+            String breakerName = method.getEnclosingElement().getSimpleName() + "." + tool.getToolName();
+            fields.add("    private static final com.unionhole.mcp.runtime.CircuitBreaker " + breaker + " =");
+            fields.add("            com.unionhole.mcp.runtime.CircuitBreakers.register(new com.unionhole.mcp.runtime.CircuitBreaker(");
+            fields.add("                    \"" + breakerName + "\", " + breakerConfig.failureRateThreshold() + ", "
+                    + breakerConfig.slowCallMillis() + "L, " + breakerConfig.slowCallRateThreshold() + ", "
+                    + breakerConfig.windowSize() + ", " + breakerConfig.minimumCalls() + ", "
+                    + breakerConfig.openMillis() + "L, " + breakerConfig.halfOpenCalls() + "));");
+        }
+
+        // 对冲请求：仅对幂等方法生效，流式结果是惰性的，无法对冲；异步方法不占线程，无需对冲
+        String hedger = null;
+        if (annotation != null && annotation.hedgeAfter() > 0) {
+            if (!annotation.idempotent() || streaming || async) {
+                processingEnv.getMessager().printMessage(javax.tools.Diagnostic.Kind.WARNING,
+                        "hedgeAfter on " + toolId + " is ignored, hedging requires an idempotent, synchronous, "
+                                + "non-streaming method", method);
+            } else {
+                hedger = constant + "_HEDGER";
+                fields.add("    private static final com.unionhole.mcp.runtime.Hedger " + hedger + " =");
+                fields.add("            new com.unionhole.mcp.runtime.Hedger(\"" + toolId + "\", "
+                        + annotation.hedgeAfter() + "L, " + annotation.hedgeBudgetPercent() + ");");
+            }
+        }
+
+        // 回放时按参数名重建工具参数，使用工具参数（包括游标和条件参数）而不是服务参数
+        if (isCaptured(method)) {
+            StringJoiner names = new StringJoiner(", ", "{", "}");
+            for (ToolParameter param : tool.getParameters()) {
+                names.add("\"" + param.getName() + "\"");
+            }
+            fields.add("    private static final String[] " + constant + "_PARAMETERS = " + names + ";");
+        }
 
         lines.add("");
-        lines.add("    @Tool(description = \"" + description + "\")");
-        
-        // 获取原始方法的返回类型
-        String returnType = method.getReturnType().toString();
+        if (!fields.isEmpty()) {
+            lines.addAll(fields);
+            lines.add("");
+        }
+        if (!plain) {
+            lines.add("    @Tool(description = \"" + tool.getDescription() + "\")");
+        }
         
         // 生成方法签名
-        StringBuilder signature = new StringBuilder("    public " + returnType + " " + methodName + "(");
-        List<? extends VariableElement> parameters = method.getParameters();
-        for (int i = 0; i < parameters.size(); i++) {
-            VariableElement param = parameters.get(i);
+        StringBuilder signature = new StringBuilder("    public " + tool.getReturnType() + " " + methodName + "(");
+        for (int i = 0; i < tool.getParameters().size(); i++) {
+            ToolParameter param = tool.getParameters().get(i);
             if (i > 0) {
                 signature.append(", ");
             }
-            signature.append(param.asType().toString())
+            signature.append(param.getTypeName())
                     .append(" ")
-                    .append(param.getSimpleName().toString());
+                    .append(param.getName());
         }
         signature.append(") {");
         lines.add(signature.toString());
 
+        // 生成方法调用，分页重载方法额外传入偏移量和条数
+        int pageSize = pageSize(method);
+        ExecutableElement pagedOverload = pageSize > 0 ? findPagedOverload(method) : null;
+        StringJoiner call = new StringJoiner(", ", "service." + methodName + "(", ")");
+        for (VariableElement param : parameters) {
+            call.add(isCallContext(param) ? CALL_CONTEXT + ".current()" : param.getSimpleName().toString());
+        }
+        if (pagedOverload != null) {
+            call.add("pageOffset").add("pageLimit");
+        }
+        String invocation = isRemote(serviceAnnotation)
+                ? remoteInvocation(method, pagedOverload)
+                : call + (async ? asyncAdapter(method) : "");
+        boolean isVoid = method.getReturnType().getKind() == TypeKind.VOID;
+        if (async) {
+            lines.addAll(asyncMethodBody(method, invocation, breaker, guards));
+            return lines;
+        }
+        if (hedger != null) {
+            invocation = hedger + ".execute(" + lambda(invocation, isVoid) + ")";
+        }
+        if (pagedOverload != null) {
+            invocation = "com.unionhole.mcp.runtime.Pages.fetch(\"" + toolId + "\", " + cursorParameterName(method)
+                    + ", " + pageSize + ", (pageOffset, pageLimit) -> " + invocation + ")";
+        } else if (pageSize > 0) {
+            invocation = "com.unionhole.mcp.runtime.Pages.slice(\"" + toolId + "\", " + cursorParameterName(method)
+                    + ", " + pageSize + ", " + invocation + ")";
+        } else if (annotation != null && annotation.pageSize() > 0) {
+            processingEnv.getMessager().printMessage(javax.tools.Diagnostic.Kind.WARNING,
+                    "pageSize on " + toolId + " is ignored, paging requires a Collection return type", method);
+        }
+        if (streaming) {
+            int chunkSize = annotation != null ? annotation.chunkSize() : DEFAULT_CHUNK_SIZE;
+            invocation = "com.unionhole.mcp.runtime.ChunkedResults.drain(\"" + toolId + "\", "
+                    + invocation + ", " + chunkSize + ")";
+        }
+        if (breaker != null) {
+            invocation = breaker + ".execute(" + lambda(invocation, isVoid) + ")";
+        }
+        int priority = priority(method);
+        if (priority >= 0) {
+            invocation = "com.unionhole.mcp.runtime.AdmissionScheduler.shared().execute(" + priority + ", \""
+                    + toolId + "\", " + lambda(invocation, isVoid) + ")";
+        }
+        // 截止时间覆盖排队等待和服务调用，超时后中断调用线程
+        long timeout = annotation != null ? annotation.timeout() : 0;
+        if (timeout > 0) {
+            invocation = CALL_CONTEXT + ".withTimeout(" + timeout + "L, " + lambda(invocation, isVoid) + ")";
+        }
+        if (isRecorded(method)) {
+            invocation = "com.unionhole.mcp.runtime.ToolRecorder.record(\"" + toolId + "\", "
+                    + argumentArray(parameters) + ", " + lambda(invocation, isVoid) + ")";
+        }
+        long cacheTtl = cacheTtl(method);
+        boolean conditional = isConditional(method);
+        if (cacheTtl > 0) {
+            // 缓存键不包含客户端传入的结果哈希
+            StringJoiner args = new StringJoiner(", ", "new Object[]{", "}");
+            for (ToolParameter param : tool.getParameters()) {
+                if (!conditional || !param.getName().equals(conditionalParameterName(method))) {
+                    args.add(param.getName());
+                }
+            }
+            invocation = "com.unionhole.mcp.runtime.ResultCache.cached(\"" + toolId + "\", " + args + ", "
+                    + cacheTtl + "L, " + lambda(invocation, isVoid) + ")";
+        } else if (annotation != null && annotation.cacheTtl() > 0) {
+            processingEnv.getMessager().printMessage(javax.tools.Diagnostic.Kind.WARNING,
+                    "cacheTtl on " + toolId + " is ignored, void and streaming results are not cached", method);
+        }
+        if (conditional) {
+            invocation = "com.unionhole.mcp.runtime.ConditionalResults.ifChanged(\"" + toolId + "\", "
+                    + conditionalParameterName(method) + ", " + lambda(invocation, isVoid) + ")";
+        } else if (annotation != null && annotation.conditional()) {
+            processingEnv.getMessager().printMessage(javax.tools.Diagnostic.Kind.WARNING,
+                    "conditional on " + toolId + " is ignored, void and streaming results are not hashed", method);
+        }
+        if (spill) {
+            invocation = "com.unionhole.mcp.runtime.SpillStore.inlineOrSpill(\"" + toolId + "\", "
+                    + invocation + ", " + annotation.maxInlineBytes() + "L)";
+        }
+        // 审计记录包含缓存命中和限流等拒绝，前置检查移入审计范围；记录入队后由后台线程写入
+        if (isAudited(method)) {
+            invocation = "com.unionhole.mcp.runtime.AuditJournal.record(\"" + toolId + "\", "
+                    + argumentArray(parameters) + ", " + guardedLambda(guards, invocation, isVoid) + ")";
+            guards.clear();
+        }
+        // 采样记录客户端看到的调用，包括被拒绝的调用
+        if (isCaptured(method)) {
+            invocation = "com.unionhole.mcp.runtime.TrafficCapture.capture(\"" + tool.getToolName() + "\", "
+                    + constant + "_PARAMETERS, " + toolArgumentArray(tool.getParameters()) + ", "
+                    + guardedLambda(guards, invocation, isVoid) + ")";
+            guards.clear();
+        }
+
         // 生成方法体
+        lines.addAll(guards);
         lines.add("        try {");
-        StringBuilder methodCall = new StringBuilder("            return service." + methodName + "(");
-        for (int i = 0; i < parameters.size(); i++) {
-            if (i > 0) {
-                methodCall.append(", ");
-            }
-            methodCall.append(parameters.get(i).getSimpleName().toString());
+        if (isVoid) {
+            lines.add("            " + invocation + ";");
+        } else {
+            lines.add("            return " + invocation + ";");
         }
-        methodCall.append(");");
-        lines.add(methodCall.toString());
+        lines.add("        } catch (com.unionhole.mcp.runtime.MCPException e) {");
+        lines.add("            throw e;");
         lines.add("        } catch (Exception e) {");
         lines.add("            throw new RuntimeException(e.getMessage(), e);");
         lines.add("        }");
@@ -305,6 +533,504 @@ public class MCPFacadeProcessor extends AbstractProcessor {
         return lines;
     }
 
+    /**
+     * Body of a facade for an asynchronous service method. The wrappers act on
+     * completion of the future instead of holding the calling thread; plain
+     * facades return the future, Spring AI tools are synchronous so Spring
+     * facades wait for it.
+     */
+    private List<String> asyncMethodBody(ExecutableElement method, String invocation, String breaker,
+                                         List<String> guards) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        String toolId = method.getEnclosingElement().getSimpleName() + "." + method.getSimpleName();
+        if (annotation != null && (annotation.cacheTtl() > 0 || annotation.conditional()
+                || annotation.maxInlineBytes() > 0 || annotation.pageSize() > 0)) {
+            processingEnv.getMessager().printMessage(javax.tools.Diagnostic.Kind.WARNING,
+                    "cacheTtl, conditional, maxInlineBytes and pageSize on " + toolId
+                            + " are ignored, asynchronous results are returned as they complete", method);
+        }
+        String async = "com.unionhole.mcp.runtime.AsyncCalls";
+        if (breaker != null) {
+            invocation = async + ".breaker(" + breaker + ", () -> " + invocation + ")";
+        }
+        int priority = priority(method);
+        if (priority >= 0) {
+            invocation = async + ".admit(" + priority + ", \"" + toolId + "\", () -> " + invocation + ")";
+        }
+        long timeout = annotation != null ? annotation.timeout() : 0;
+        if (timeout > 0) {
+            invocation = async + ".withTimeout(" + timeout + "L, () -> " + invocation + ")";
+        }
+        if (isRecorded(method)) {
+            invocation = async + ".record(\"" + toolId + "\", " + argumentArray(method.getParameters())
+                    + ", () -> " + invocation + ")";
+        }
+        if (isAudited(method)) {
+            invocation = async + ".audit(\"" + toolId + "\", " + argumentArray(method.getParameters())
+                    + ", " + guardedLambda(guards, invocation, false) + ")";
+            guards.clear();
+        }
+        if (isCaptured(method)) {
+            invocation = async + ".capture(\"" + toolName(method) + "\", " + constantPrefix(method)
+                    + "_PARAMETERS, " + argumentArray(method.getParameters()) + ", "
+                    + guardedLambda(guards, invocation, false) + ")";
+            guards.clear();
+        }
+        List<String> lines = new ArrayList<>(guards);
+        invocation = async + ".start(() -> " + invocation + ")";
+
+        // 失败已按同步调用的方式解包，无需再包一层 try
+        if (plain) {
+            lines.add("        return " + invocation + ";");
+        } else {
+            lines.add("        return " + async + ".await(" + invocation + ");");
+        }
+        lines.add("    }");
+        return lines;
+    }
+
+    /**
+     * Admission priority of a method, -1 if it bypasses admission control
+     */
+    private int priority(ExecutableElement method) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        MCPService serviceAnnotation = method.getEnclosingElement().getAnnotation(MCPService.class);
+        int priority = annotation != null ? annotation.priority() : -1;
+        if (priority < 0 && serviceAnnotation != null && serviceAnnotation.admissionControl()) {
+            priority = DEFAULT_PRIORITY;
+        }
+        if (priority > 9) {
+            processingEnv.getMessager().printMessage(javax.tools.Diagnostic.Kind.WARNING,
+                    "priority " + priority + " on " + method.getEnclosingElement().getSimpleName() + "."
+                            + method.getSimpleName() + " is out of range 0..9, using 9", method);
+            priority = 9;
+        }
+        return priority;
+    }
+
+    private boolean isRecorded(ExecutableElement method) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        MCPService serviceAnnotation = method.getEnclosingElement().getAnnotation(MCPService.class);
+        return (annotation != null && annotation.flightRecorder())
+                || (serviceAnnotation != null && serviceAnnotation.flightRecorder());
+    }
+
+    private boolean isCaptured(ExecutableElement method) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        MCPService serviceAnnotation = method.getEnclosingElement().getAnnotation(MCPService.class);
+        return (annotation != null && annotation.capture())
+                || (serviceAnnotation != null && serviceAnnotation.capture());
+    }
+
+    private boolean isAudited(ExecutableElement method) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        MCPService serviceAnnotation = method.getEnclosingElement().getAnnotation(MCPService.class);
+        return (annotation != null && annotation.audit())
+                || (serviceAnnotation != null && serviceAnnotation.audit());
+    }
+
+    private String argumentArray(List<? extends VariableElement> parameters) {
+        StringJoiner args = new StringJoiner(", ", "new Object[]{", "}");
+        for (VariableElement param : parameters) {
+            if (!isCallContext(param)) {
+                args.add(param.getSimpleName().toString());
+            }
+        }
+        return args.toString();
+    }
+
+    /**
+     * The arguments of the facade method as its clients send them
+     */
+    private String toolArgumentArray(List<ToolParameter> parameters) {
+        StringJoiner args = new StringJoiner(", ", "new Object[]{", "}");
+        for (ToolParameter param : parameters) {
+            args.add(param.getName());
+        }
+        return args.toString();
+    }
+
+    /**
+     * A CallContext parameter is passed by the facade and is not a tool argument
+     */
+    private boolean isCallContext(VariableElement param) {
+        return param.asType().getKind() == TypeKind.DECLARED
+                && processingEnv.getTypeUtils().erasure(param.asType()).toString().equals(CALL_CONTEXT);
+    }
+
+    private boolean isRemote(MCPService serviceAnnotation) {
+        return serviceAnnotation != null && !serviceAnnotation.remote().isEmpty();
+    }
+
+    /**
+     * Forward a call to the service nodes, the arguments are sent under the
+     * parameter names of the called method (the paged overload when paging
+     * is pushed down) and the result is decoded to its declared type
+     */
+    private String remoteInvocation(ExecutableElement method, ExecutableElement pagedOverload) {
+        ExecutableElement target = pagedOverload != null ? pagedOverload : method;
+        StringJoiner names = new StringJoiner(", ", "new String[]{", "}");
+        for (VariableElement param : target.getParameters()) {
+            if (!isCallContext(param)) {
+                names.add("\"" + param.getSimpleName() + "\"");
+            }
+        }
+        StringJoiner values = new StringJoiner(", ", "new Object[]{", "}");
+        for (VariableElement param : method.getParameters()) {
+            if (!isCallContext(param)) {
+                values.add(param.getSimpleName().toString());
+            }
+        }
+        if (pagedOverload != null) {
+            values.add("pageOffset").add("pageLimit");
+        }
+        TypeMirror returnType = target.getReturnType();
+        String resultType;
+        String adapter = "";
+        if (isAsyncReturnType(target)) {
+            // 异步方法的结果由节点在完成后回写，这里不占线程等待
+            return REMOTE_CLIENT + ".callAsync(\"" + RemoteEndpointGenerator.methodKey(target) + "\", " + names
+                    + ", " + values + ", new com.fasterxml.jackson.core.type.TypeReference<"
+                    + asyncResultType(target) + ">() {})";
+        } else if (returnType.getKind() == TypeKind.VOID) {
+            resultType = "java.lang.Void";
+        } else if (returnType.getKind().isPrimitive()) {
+            resultType = processingEnv.getTypeUtils().boxedClass((PrimitiveType) returnType)
+                    .getQualifiedName().toString();
+        } else if (isStreamingReturnType(target)) {
+            // 流式结果在节点端已物化为列表，这里还原成原来的惰性类型
+            List<? extends TypeMirror> arguments = ((DeclaredType) returnType).getTypeArguments();
+            resultType = "java.util.List<" + (arguments.size() == 1 ? arguments.get(0) : "java.lang.Object") + ">";
+            adapter = processingEnv.getTypeUtils().erasure(returnType).toString().equals("java.util.Iterator")
+                    ? ".iterator()"
+                    : ".stream()";
+        } else {
+            resultType = returnType.toString();
+        }
+        return REMOTE_CLIENT + ".call(\"" + RemoteEndpointGenerator.methodKey(target) + "\", " + names + ", "
+                + values + ", new com.fasterxml.jackson.core.type.TypeReference<" + resultType + ">() {})"
+                + adapter;
+    }
+
+    /**
+     * Wrap the guards and an invocation into one lambda, so that rejections by
+     * the guards happen inside the wrapping call
+     */
+    private String guardedLambda(List<String> guards, String invocation, boolean isVoid) {
+        if (guards.isEmpty()) {
+            return lambda(invocation, isVoid);
+        }
+        StringBuilder body = new StringBuilder("() -> { ");
+        for (String guard : guards) {
+            body.append(guard.trim()).append(' ');
+        }
+        body.append(isVoid ? invocation + "; return null; }" : "return " + invocation + "; }");
+        return body.toString();
+    }
+
+    /**
+     * Wrap an invocation into a ServiceCall lambda, void calls return null
+     */
+    private String lambda(String invocation, boolean isVoid) {
+        return isVoid ? "() -> { " + invocation + "; return null; }" : "() -> " + invocation;
+    }
+
+    /**
+     * Prefix of the static fields generated for a method, e.g. GET_WEATHER.
+     * Overloaded methods get the parameter count appended, and the erased
+     * parameter types as well when another overload has the same count.
+     */
+    private String constantPrefix(ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        String constant = toConstant(name);
+        List<ExecutableElement> overloads = ElementFilter.methodsIn(method.getEnclosingElement().getEnclosedElements())
+                .stream()
+                .filter(e -> e.getSimpleName().contentEquals(name))
+                .collect(Collectors.toList());
+        if (overloads.size() < 2) {
+            return constant;
+        }
+        int arity = method.getParameters().size();
+        if (overloads.stream().filter(e -> e.getParameters().size() == arity).count() < 2) {
+            return constant + "_" + arity;
+        }
+        String typed = constant + "_" + arity + parameterTypesSuffix(method);
+        for (ExecutableElement overload : overloads) {
+            // 不同包的同名类型擦除后仍会重名，此时改用声明顺序
+            if (overload != method && overload.getParameters().size() == arity
+                    && typed.equals(constant + "_" + arity + parameterTypesSuffix(overload))) {
+                return constant + "_" + arity + "_" + overloads.indexOf(method);
+            }
+        }
+        return typed;
+    }
+
+    /**
+     * Name the tool is registered under: the method name, with the suffix of
+     * its constant prefix in lower case when other overloads are tools too,
+     * e.g. find_1_string
+     */
+    private String toolName(ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        boolean overloaded = ElementFilter.methodsIn(method.getEnclosingElement().getEnclosedElements()).stream()
+                .anyMatch(e -> e != method && e.getSimpleName().contentEquals(name)
+                        && e.getModifiers().contains(Modifier.PUBLIC) && !isPagedOverload(e));
+        if (!overloaded) {
+            return name;
+        }
+        return name + constantPrefix(method).substring(toConstant(name).length()).toLowerCase(Locale.ROOT);
+    }
+
+    private String parameterTypesSuffix(ExecutableElement method) {
+        StringBuilder suffix = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            TypeMirror type = processingEnv.getTypeUtils().erasure(parameter.asType());
+            String simple = type.toString().replaceAll("^.*\\.", "");
+            suffix.append('_').append(toConstant(simple.replace("[]", "Array")));
+        }
+        return suffix.toString();
+    }
+
+    private static String toConstant(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Resolve the facade signature of a service method
+     */
+    private ToolMethod toToolMethod(ExecutableElement method) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        String description = annotation != null && !annotation.description().isEmpty()
+            ? annotation.description()
+            : getMethodDescription(method);
+
+        // 获取原始方法的返回类型，流式返回值改为分块结果
+        String returnType = method.getReturnType().toString();
+        if (isStreamingReturnType(method)) {
+            returnType = "com.unionhole.mcp.vo.ChunkedResult";
+        }
+        // 集合返回值分页返回，并增加游标参数
+        boolean paged = pageSize(method) > 0;
+        if (paged) {
+            returnType = "com.unionhole.mcp.vo.Page<" + collectionElementType(method.getReturnType()) + ">";
+        }
+        // 缓存和超出内联大小的结果以原始 JSON 或资源引用返回，返回类型放宽为 Object
+        if (cacheTtl(method) > 0 || isSpilled(method)) {
+            returnType = "java.lang.Object";
+        }
+        // 条件结果返回内容哈希，结果未变化时只返回标记
+        if (isConditional(method) && !isSpilled(method)) {
+            returnType = "com.unionhole.mcp.vo.ConditionalResult";
+        }
+        // 异步方法：嵌入式运行时直接返回 future，Spring AI 的工具方法只能返回结果值
+        TypeMirror asyncResultType = isAsyncReturnType(method) ? asyncResultType(method) : null;
+        if (asyncResultType != null) {
+            returnType = plain
+                    ? "java.util.concurrent.CompletableFuture<" + asyncResultType + ">"
+                    : asyncResultType.toString();
+        }
+
+        List<ToolParameter> parameters = new ArrayList<>();
+        for (VariableElement param : method.getParameters()) {
+            if (!isCallContext(param)) {
+                parameters.add(new ToolParameter(param.getSimpleName().toString(), param.asType()));
+            }
+        }
+        if (paged) {
+            TypeMirror string = processingEnv.getElementUtils().getTypeElement("java.lang.String").asType();
+            parameters.add(new ToolParameter(cursorParameterName(method), string));
+        }
+        if (isConditional(method)) {
+            TypeMirror string = processingEnv.getElementUtils().getTypeElement("java.lang.String").asType();
+            parameters.add(new ToolParameter(conditionalParameterName(method), string));
+        }
+        return new ToolMethod(method, method.getSimpleName().toString(), toolName(method), description, returnType,
+                parameters, asyncResultType);
+    }
+
+    /**
+     * Page size of a method returning a Collection, 0 if the method is not paged
+     */
+    private int pageSize(ExecutableElement method) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        int pageSize = annotation != null ? annotation.pageSize() : 0;
+        return pageSize > 0 && isCollection(method.getReturnType()) ? pageSize : 0;
+    }
+
+    private boolean isCollection(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror collection = types.erasure(
+                processingEnv.getElementUtils().getTypeElement("java.util.Collection").asType());
+        return types.isAssignable(types.erasure(type), collection);
+    }
+
+    /**
+     * Element type of a Collection type as written in generated source, walking
+     * up the supertypes of collection subclasses
+     */
+    private String collectionElementType(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        if (types.erasure(type).toString().equals("java.util.Collection")) {
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            return arguments.size() == 1 ? arguments.get(0).toString() : "java.lang.Object";
+        }
+        for (TypeMirror supertype : types.directSupertypes(type)) {
+            if (isCollection(supertype)) {
+                return collectionElementType(supertype);
+            }
+        }
+        return "java.lang.Object";
+    }
+
+    /**
+     * A public overload taking the same parameters followed by an offset and a
+     * limit (int or long) and returning a Collection, e.g. list(String, int, int)
+     */
+    private ExecutableElement findPagedOverload(ExecutableElement method) {
+        Types types = processingEnv.getTypeUtils();
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (Element enclosed : method.getEnclosingElement().getEnclosedElements()) {
+            if (enclosed.getKind() != ElementKind.METHOD || !enclosed.getModifiers().contains(Modifier.PUBLIC)
+                    || !enclosed.getSimpleName().contentEquals(method.getSimpleName())) {
+                continue;
+            }
+            ExecutableElement candidate = (ExecutableElement) enclosed;
+            List<? extends VariableElement> candidateParameters = candidate.getParameters();
+            if (candidateParameters.size() != parameters.size() + 2 || !isCollection(candidate.getReturnType())) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < candidateParameters.size() && matches; i++) {
+                TypeMirror type = candidateParameters.get(i).asType();
+                matches = i < parameters.size()
+                        ? types.isSameType(type, parameters.get(i).asType())
+                        : type.getKind() == TypeKind.INT || type.getKind() == TypeKind.LONG;
+            }
+            if (matches) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the method is the paged overload another paged tool pushes its
+     * offset and limit down to
+     */
+    private boolean isPagedOverload(ExecutableElement method) {
+        for (Element enclosed : method.getEnclosingElement().getEnclosedElements()) {
+            if (enclosed != method && enclosed.getKind() == ElementKind.METHOD
+                    && enclosed.getSimpleName().contentEquals(method.getSimpleName())
+                    && pageSize((ExecutableElement) enclosed) > 0
+                    && method.equals(findPagedOverload((ExecutableElement) enclosed))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String cursorParameterName(ExecutableElement method) {
+        boolean taken = method.getParameters().stream().anyMatch(p -> p.getSimpleName().contentEquals("cursor"));
+        return taken ? "pageCursor" : "cursor";
+    }
+
+    /**
+     * Whether the tool returns a content hash and accepts the previous one
+     */
+    private boolean isConditional(ExecutableElement method) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        return annotation != null && annotation.conditional()
+                && method.getReturnType().getKind() != TypeKind.VOID && !isStreamingReturnType(method)
+                && !isAsyncReturnType(method);
+    }
+
+    private String conditionalParameterName(ExecutableElement method) {
+        boolean taken = method.getParameters().stream().anyMatch(p -> p.getSimpleName().contentEquals("ifNoneMatch"));
+        return taken ? "resultIfNoneMatch" : "ifNoneMatch";
+    }
+
+    /**
+     * Cache TTL in seconds of a method, 0 if its results are not cached
+     */
+    private long cacheTtl(ExecutableElement method) {
+        if (method.getReturnType().getKind() == TypeKind.VOID || isStreamingReturnType(method)
+                || isAsyncReturnType(method)) {
+            return 0;
+        }
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        MCPService serviceAnnotation = method.getEnclosingElement().getAnnotation(MCPService.class);
+        long ttl = annotation != null && annotation.cacheTtl() != 0
+                ? annotation.cacheTtl()
+                : serviceAnnotation != null ? serviceAnnotation.cacheTtl() : 0;
+        return Math.max(0, ttl);
+    }
+
+    private boolean isSpilled(ExecutableElement method) {
+        MCPMethod annotation = method.getAnnotation(MCPMethod.class);
+        return annotation != null && annotation.maxInlineBytes() > 0
+                && method.getReturnType().getKind() != TypeKind.VOID && !isAsyncReturnType(method);
+    }
+
+    /**
+     * Whether the method completes its result later (CompletableFuture,
+     * CompletionStage, Mono or Flux) instead of returning it
+     */
+    private boolean isAsyncReturnType(ExecutableElement method) {
+        TypeMirror returnType = method.getReturnType();
+        return returnType.getKind() == TypeKind.DECLARED
+                && ASYNC_RETURN_TYPES.containsKey(processingEnv.getTypeUtils().erasure(returnType).toString());
+    }
+
+    /**
+     * Value an asynchronous method completes with, a Flux is collected into a List
+     */
+    private TypeMirror asyncResultType(ExecutableElement method) {
+        Types types = processingEnv.getTypeUtils();
+        Elements elements = processingEnv.getElementUtils();
+        List<? extends TypeMirror> arguments = ((DeclaredType) method.getReturnType()).getTypeArguments();
+        TypeMirror value = arguments.size() == 1 ? arguments.get(0) : null;
+        if (value != null && value.getKind() == TypeKind.WILDCARD) {
+            value = ((WildcardType) value).getExtendsBound();
+        }
+        if (value == null) {
+            value = elements.getTypeElement("java.lang.Object").asType();
+        }
+        if (types.erasure(method.getReturnType()).toString().equals("reactor.core.publisher.Flux")) {
+            value = types.getDeclaredType(elements.getTypeElement("java.util.List"), value);
+        }
+        return value;
+    }
+
+    /**
+     * Turns the value returned by an asynchronous method into a CompletableFuture
+     * of {@link #asyncResultType}
+     */
+    private String asyncAdapter(ExecutableElement method) {
+        String adapter = ASYNC_RETURN_TYPES.get(processingEnv.getTypeUtils().erasure(method.getReturnType()).toString());
+        List<? extends TypeMirror> arguments = ((DeclaredType) method.getReturnType()).getTypeArguments();
+        if (arguments.size() == 1 && arguments.get(0).getKind() == TypeKind.WILDCARD) {
+            // 通配类型参数收窄为其上界
+            adapter += ".thenApply(value -> (" + asyncResultType(method) + ") value)";
+        }
+        return adapter;
+    }
+
+    /**
+     * Whether the method returns a lazily produced sequence (Stream or Iterator)
+     * that should be drained in bounded chunks instead of being materialized.
+     */
+    private boolean isStreamingReturnType(ExecutableElement method) {
+        TypeMirror returnType = method.getReturnType();
+        if (returnType.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        String erasure = processingEnv.getTypeUtils().erasure(returnType).toString();
+        return STREAMING_RETURN_TYPES.contains(erasure);
+    }
+
     private String findProjectRoot() {
         try {
             // 获取当前工作目录
@@ -328,6 +1054,9 @@ public class MCPFacadeProcessor extends AbstractProcessor {
         File packageDir = new File(projectRoot, packagePath);
         packageDir.mkdirs();
 
+        // 先生成 DTO 编解码模块，Facade 需要在类初始化时注册它
+        boolean jsonModule = generateJsonModule(projectRoot, packageName, serviceClassName, typeElement);
+
         // 创建 Facade 文件
         File facadeFile = new File(packageDir, facadeClassName + ".java");
 
@@ -342,10 +1071,12 @@ public class MCPFacadeProcessor extends AbstractProcessor {
             out.println();
 
             // 生成导入语句
-            out.println("import org.springframework.ai.tool.annotation.Tool;");
-            out.println("import org.springframework.stereotype.Service;");
-            out.println("import org.springframework.beans.factory.annotation.Autowired;");
-            out.println("import org.springframework.stereotype.Component;");
+            if (!plain) {
+                out.println("import org.springframework.ai.tool.annotation.Tool;");
+                out.println("import org.springframework.stereotype.Service;");
+                out.println("import org.springframework.beans.factory.annotation.Autowired;");
+                out.println("import org.springframework.stereotype.Component;");
+            }
             // 如果 Service 类在不同包，需要导入
             if (!packageName.equals(processingEnv.getElementUtils()
                     .getPackageOf(typeElement).getQualifiedName().toString())) {
@@ -356,74 +1087,66 @@ public class MCPFacadeProcessor extends AbstractProcessor {
             // Write class header comment
             writeFileHeader(out, serviceClassName);
 
-            out.println("@Component");
+            if (!plain) {
+                out.println("@Component");
+            }
             // 生成类声明
             out.println("public class " + facadeClassName + " {");
 
-            // 生成 service 实例
-            out.println("    @Autowired");
-            out.println("    private " + serviceClassName + " service;");
-            out.println();
+            // 生成 service 实例，plain 模式通过构造器注入；远程模式只持有节点池客户端
+            MCPService serviceAnnotation = typeElement.getAnnotation(MCPService.class);
+            if (isRemote(serviceAnnotation)) {
+                out.println("    private static final com.unionhole.mcp.remote.RemoteClient " + REMOTE_CLIENT + " =");
+                out.println("            com.unionhole.mcp.remote.RemoteClient.forService(\"" + serviceClassName
+                        + "\", \"" + serviceAnnotation.remote().replace("\\", "\\\\").replace("\"", "\\\"") + "\");");
+            } else if (plain) {
+                out.println("    private final " + serviceClassName + " service;");
+                out.println();
+                out.println("    public " + facadeClassName + "(" + serviceClassName + " service) {");
+                out.println("        this.service = service;");
+                out.println("    }");
+            } else {
+                out.println("    @Autowired");
+                out.println("    private " + serviceClassName + " service;");
+            }
+            if (jsonModule) {
+                out.println();
+                out.println("    static {");
+                out.println("        com.unionhole.mcp.runtime.JsonCodecs.register(new "
+                        + JsonCodecGenerator.moduleClassName(serviceClassName) + "());");
+                out.println("    }");
+            }
 
             // 生成所有公共方法
             for (Element enclosed : typeElement.getEnclosedElements()) {
                 if (enclosed.getKind() == ElementKind.METHOD) {
                     ExecutableElement method = (ExecutableElement) enclosed;
-                    if (method.getModifiers().contains(Modifier.PUBLIC)) {
-                        generateMethodImplementation(out, method);
+                    if (method.getModifiers().contains(Modifier.PUBLIC) && !isPagedOverload(method)) {
+                        for (String line : generateMethodLines(method)) {
+                            out.println(line);
+                        }
                     }
                 }
             }
 
+            out.println();
             out.println("}");
         }
     }
 
-    private void generateMethodImplementation(PrintWriter out, ExecutableElement method) {
-        String methodName = method.getSimpleName().toString();
-
-        // 获取方法的文档注释
-        String description = getMethodDescription(method);
-
-        // 生成 @Tool 注解
-        out.println("    @Tool(description = \"" + (description != null ? description : methodName) + "\")");
-
-        // 获取原始方法的返回类型
-        String returnType = method.getReturnType().toString();
-
-        // 生成方法签名，使用原始参数和返回类型
-        out.print("    public " + returnType + " " + methodName + "(");
-        
-        // 添加原始参数
-        List<? extends VariableElement> parameters = method.getParameters();
-        for (int i = 0; i < parameters.size(); i++) {
-            VariableElement param = parameters.get(i);
-            if (i > 0) {
-                out.print(", ");
-            }
-            out.print(param.asType().toString() + " " + param.getSimpleName().toString());
-        }
-        out.println(") {");
-
-        // 生成方法体
-        out.println("        try {");
-
-        // 生成方法调用
-        out.print("            return service." + methodName + "(");
-        for (int i = 0; i < parameters.size(); i++) {
-            if (i > 0) {
-                out.print(", ");
+    /**
+     * Generate compile-time JSON codecs for the DTOs used by the public service methods
+     */
+    private boolean generateJsonModule(String projectRoot, String packageName, String serviceClassName,
+                                       TypeElement typeElement) throws IOException {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.METHOD && enclosed.getModifiers().contains(Modifier.PUBLIC)) {
+                methods.add((ExecutableElement) enclosed);
             }
-            out.print(parameters.get(i).getSimpleName().toString());
         }
-        out.println(");");
-
-        // 生成异常处理
-        out.println("        } catch (Exception e) {");
-        out.println("            throw new RuntimeException(e.getMessage(), e);");
-        out.println("        }");
-        out.println("    }");
-        out.println();
+        JsonCodecGenerator generator = new JsonCodecGenerator(processingEnv, plain);
+        return generator.generate(projectRoot, packageName, serviceClassName, generator.collectDtoTypes(methods));
     }
 
     private String getMethodDescription(ExecutableElement method) {
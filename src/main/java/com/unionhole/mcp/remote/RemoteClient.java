@@ -0,0 +1,286 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.remote;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unionhole.mcp.runtime.AsyncCalls;
+import com.unionhole.mcp.runtime.CallContext;
+import com.unionhole.mcp.runtime.JsonCodecs;
+import com.unionhole.mcp.runtime.MCPException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client side of a remote facade, one per service. Generated facades of
+ * {@code @MCPService(remote = ...)} forward every call to a service node
+ * picked by least outstanding requests among the healthy nodes. Connections
+ * are pooled per node and pipelined, responses are matched by request id.
+ * <p>
+ * A call is retried on another node only when it could not be sent, a call
+ * that was sent and then lost is not repeated since the service method may
+ * not be idempotent. The deadline of the current {@link CallContext} is sent
+ * along and bounds the wait; a caller that times out or is cancelled tells
+ * the node to abandon the call. {@link #callAsync} does not hold a thread
+ * while the node works.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class RemoteClient {
+    public static final String UNAVAILABLE = "503";
+    public static final String TIMEOUT = "504";
+
+    private static final Map<String, RemoteClient> clients = new ConcurrentHashMap<>();
+
+    private final String service;
+    private final List<RemoteNode> nodes = new CopyOnWriteArrayList<>();
+    private final ObjectMapper mapper = JsonCodecs.mapper();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final int connectionsPerNode = Integer.getInteger("mcp.remote.connectionsPerNode", 2);
+    private final long timeoutMillis = Long.getLong("mcp.remote.timeoutMillis", 30000L);
+    private final int failureThreshold = Integer.getInteger("mcp.remote.failureThreshold", 3);
+    private final long downMillis = Long.getLong("mcp.remote.downMillis", 5000L);
+    private final long connectTimeoutMillis = Long.getLong("mcp.remote.connectTimeoutMillis", 3000L);
+
+    private boolean configured;
+
+    private RemoteClient(String service) {
+        this.service = service;
+    }
+
+    private synchronized void configure(String nodes) {
+        String resolved = resolve(nodes);
+        if (configured || resolved.isEmpty()) {
+            return;
+        }
+        configured = true;
+        for (String node : resolved.split(",")) {
+            if (!node.trim().isEmpty()) {
+                addNode(node.trim());
+            }
+        }
+    }
+
+    /**
+     * The client of a service, the configured nodes are added once, nodes
+     * added before (e.g. a local stand-in) are kept.
+     * Nodes are {@code host:port} separated by commas, or {@code ${property}} /
+     * {@code ${property:default}} to read them from a system property.
+     */
+    public static RemoteClient forService(String service, String nodes) {
+        RemoteClient client = clients.computeIfAbsent(service, RemoteClient::new);
+        client.configure(nodes);
+        return client;
+    }
+
+    public static RemoteClient get(String service) {
+        return forService(service, "");
+    }
+
+    public static Collection<RemoteClient> all() {
+        return new ArrayList<>(clients.values());
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public List<RemoteNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public RemoteNode addNode(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Node address must be host:port, got " + address);
+        }
+        return addNode(InetSocketAddress.createUnresolved(address.substring(0, colon),
+                Integer.parseInt(address.substring(colon + 1))));
+    }
+
+    public RemoteNode addNode(InetSocketAddress address) {
+        InetSocketAddress resolved = address.isUnresolved()
+                ? new InetSocketAddress(address.getHostString(), address.getPort())
+                : address;
+        RemoteNode node = new RemoteNode(resolved, connectionsPerNode, mapper, failureThreshold, downMillis,
+                connectTimeoutMillis);
+        nodes.add(node);
+        return node;
+    }
+
+    public void removeNode(RemoteNode node) {
+        nodes.remove(node);
+        node.close();
+    }
+
+    /**
+     * Call {@code Service.method/arity} on a node with named arguments
+     */
+    public <T> T call(String method, String[] names, Object[] values, TypeReference<T> type) {
+        return AsyncCalls.await(callAsync(method, names, values, type));
+    }
+
+    /**
+     * Send the call to a node without waiting, the future completes with the decoded result
+     */
+    public <T> CompletableFuture<T> callAsync(String method, String[] names, Object[] values, TypeReference<T> type) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            params.put(names[i], values[i]);
+        }
+        CallContext context = CallContext.current();
+        if (context.isCancelled()) {
+            return AsyncCalls.start(() -> {
+                context.checkCancelled();
+                return null;
+            });
+        }
+        List<RemoteNode> tried = new ArrayList<>(2);
+        RemoteNode node;
+        while ((node = choose(tried)) != null) {
+            tried.add(node);
+            long id = ids.incrementAndGet();
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("id", id);
+            message.put("method", service + "." + method);
+            message.put("params", params);
+            if (context.hasDeadline()) {
+                message.put("timeout", Math.max(1, context.remainingMillis()));
+            }
+            if (context.getSession() != null) {
+                message.put("session", context.getSession());
+            }
+            node.outstanding().incrementAndGet();
+            CompletableFuture<JsonNode> future;
+            try {
+                future = node.send(id, message);
+            } catch (IOException e) {
+                // 未发出的请求可以安全地换节点重试
+                node.outstanding().decrementAndGet();
+                node.failed();
+                continue;
+            }
+            return complete(node, future, context.remainingMillis(), type);
+        }
+        return CompletableFuture.failedFuture(new MCPException("No healthy node for " + service, UNAVAILABLE));
+    }
+
+    private <T> CompletableFuture<T> complete(RemoteNode node, CompletableFuture<JsonNode> future, long remaining,
+                                              TypeReference<T> type) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.orTimeout(Math.min(timeoutMillis, remaining), TimeUnit.MILLISECONDS).whenComplete((response, error) -> {
+            node.outstanding().decrementAndGet();
+            if (error == null) {
+                node.succeeded();
+                try {
+                    result.complete(decode(response, type));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            } else if (error instanceof TimeoutException && remaining < timeoutMillis) {
+                // 调用方的截止时间先到，不算节点故障
+                node.settled();
+                result.completeExceptionally(new MCPException("Deadline exceeded", CallContext.DEADLINE_EXCEEDED));
+            } else if (error instanceof TimeoutException) {
+                node.failed();
+                result.completeExceptionally(new MCPException(service + " node " + node + " timed out", TIMEOUT));
+            } else if (error instanceof CancellationException) {
+                node.settled();
+                result.completeExceptionally(new MCPException("Call cancelled", CallContext.CANCELLED));
+            } else {
+                node.failed();
+                result.completeExceptionally(new MCPException(service + " node " + node + " failed", UNAVAILABLE, error));
+            }
+        });
+        // 调用方放弃结果时取消请求，节点随之收到取消通知
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    private <T> T decode(JsonNode response, TypeReference<T> type) {
+        JsonNode error = response.get("error");
+        if (error != null && !error.isNull()) {
+            throw new MCPException(error.path("message").asText(), error.path("code").asText("500"));
+        }
+        JsonNode result = response.get("result");
+        if (result == null || result.isNull()) {
+            return null;
+        }
+        return mapper.convertValue(result, type);
+    }
+
+    private RemoteNode choose(List<RemoteNode> tried) {
+        List<RemoteNode> candidates = nodes;
+        int size = candidates.size();
+        if (size == 0) {
+            return null;
+        }
+        // 从轮转位置开始找未完成请求最少的健康节点，负载相同时轮流分配
+        int start = Math.floorMod(rotation.getAndIncrement(), size);
+        List<RemoteNode> skipped = new ArrayList<>(0);
+        while (true) {
+            RemoteNode best = null;
+            for (int i = 0; i < size; i++) {
+                RemoteNode node = candidates.get((start + i) % size);
+                if (!node.isHealthy() || tried.contains(node) || skipped.contains(node)) {
+                    continue;
+                }
+                if (best == null || node.getOutstanding() < best.getOutstanding()) {
+                    best = node;
+                }
+            }
+            if (best == null || best.admit()) {
+                return best;
+            }
+            // 试探请求已被其他调用占用
+            skipped.add(best);
+        }
+    }
+
+    private static String resolve(String nodes) {
+        String value = nodes == null ? "" : nodes.trim();
+        if (value.startsWith("${") && value.endsWith("}")) {
+            String key = value.substring(2, value.length() - 1);
+            int colon = key.indexOf(':');
+            String fallback = colon >= 0 ? key.substring(colon + 1) : "";
+            return System.getProperty(colon >= 0 ? key.substring(0, colon) : key, fallback);
+        }
+        return value;
+    }
+}
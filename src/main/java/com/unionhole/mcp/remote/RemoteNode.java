@@ -0,0 +1,300 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.remote;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unionhole.mcp.server.BufferPool;
+import com.unionhole.mcp.server.JsonRpcReader;
+import com.unionhole.mcp.server.JsonRpcWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One service node of a {@link RemoteClient}: a small pool of pipelined
+ * connections, the number of outstanding requests used for balancing, and
+ * a passive health state. A node is taken out of rotation for
+ * {@code downMillis} after {@code failureThreshold} consecutive transport
+ * failures and gets a single trial request afterwards. Connections are
+ * opened on demand outside the node lock, bounded by {@code connectTimeoutMillis}.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class RemoteNode implements Closeable {
+    private final InetSocketAddress address;
+    // 每个槽位是一条连接的建立结果，建立中的连接不阻塞其他请求
+    private final CompletableFuture<Connection>[] connections;
+    private final ObjectMapper mapper;
+    private final int failureThreshold;
+    private final long downMillis;
+    private final long connectTimeoutMillis;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    // 下线截止时间，0 表示在线
+    private final AtomicLong downUntil = new AtomicLong();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile boolean closed;
+
+    RemoteNode(InetSocketAddress address, int connections, ObjectMapper mapper, int failureThreshold, long downMillis,
+               long connectTimeoutMillis) {
+        this.address = address;
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Connection>[] slots =
+                (CompletableFuture<Connection>[]) new CompletableFuture<?>[Math.max(1, connections)];
+        this.connections = slots;
+        this.mapper = mapper;
+        this.failureThreshold = failureThreshold;
+        this.downMillis = downMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Whether the node is up, or down with its cooldown over and no trial request in flight
+     */
+    public boolean isHealthy() {
+        long until = downUntil.get();
+        return until == 0 || (System.currentTimeMillis() >= until && !probing.get());
+    }
+
+    /**
+     * Take the node for a request: always when it is up, once the cooldown is
+     * over only for the single trial request
+     */
+    boolean admit() {
+        long until = downUntil.get();
+        if (until == 0) {
+            return true;
+        }
+        return System.currentTimeMillis() >= until && probing.compareAndSet(false, true);
+    }
+
+    AtomicInteger outstanding() {
+        return outstanding;
+    }
+
+    void succeeded() {
+        failures.set(0);
+        downUntil.set(0);
+        probing.set(false);
+    }
+
+    void failed() {
+        if (failures.incrementAndGet() >= failureThreshold) {
+            // 半开：冷却期过后放行一次试探请求，再失败则继续下线
+            downUntil.set(System.currentTimeMillis() + downMillis);
+        }
+        probing.set(false);
+    }
+
+    /**
+     * A request ended without telling whether the node works (deadline of the
+     * caller, cancellation), another trial request may go
+     */
+    void settled() {
+        probing.set(false);
+    }
+
+    /**
+     * Write a request on the least loaded connection, the future completes with the response
+     */
+    CompletableFuture<JsonNode> send(long id, Map<String, Object> message) throws IOException {
+        Connection connection = connection();
+        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        connection.pending.put(id, future);
+        future.whenComplete((response, error) -> {
+            connection.pending.remove(id);
+            // 调用方超时或取消时通知节点放弃该调用
+            if (error instanceof TimeoutException || error instanceof CancellationException) {
+                cancel(connection, id);
+            }
+        });
+        try {
+            connection.writer.write(message);
+        } catch (IOException e) {
+            // 请求没有发出，不再等待它的响应
+            connection.pending.remove(id, future);
+            connection.close();
+            throw e;
+        }
+        return future;
+    }
+
+    private void cancel(Connection connection, long id) {
+        if (connection.closed) {
+            return;
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("method", ServiceNode.CANCEL);
+        message.put("params", Collections.singletonMap("id", id));
+        try {
+            connection.writer.write(message);
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    /**
+     * The least loaded open connection, opening one when a slot is free
+     */
+    private Connection connection() throws IOException {
+        CompletableFuture<Connection> opening = null;
+        CompletableFuture<Connection> waiting = null;
+        Connection best = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Node " + this + " is closed");
+            }
+            for (int i = 0; i < connections.length; i++) {
+                CompletableFuture<Connection> slot = connections[i];
+                if (slot == null || slot.isCompletedExceptionally() || (slot.isDone() && slot.join().closed)) {
+                    // 连接按需建立，断开后在下次使用时重连；每次只由一个请求建立一条
+                    if (opening == null) {
+                        connections[i] = opening = new CompletableFuture<>();
+                    }
+                } else if (!slot.isDone()) {
+                    waiting = slot;
+                } else if (best == null || slot.join().pending.size() < best.pending.size()) {
+                    best = slot.join();
+                }
+            }
+        }
+        if (opening != null) {
+            // 在锁外建立连接，节点不可达时不阻塞使用其他连接的请求
+            try {
+                Connection connection = new Connection(address);
+                opening.complete(connection);
+                if (closed) {
+                    connection.close();
+                    throw new IOException("Node " + this + " is closed");
+                }
+                return connection;
+            } catch (IOException | RuntimeException e) {
+                opening.completeExceptionally(e);
+                if (best == null) {
+                    throw e;
+                }
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+        // 其他请求正在建立连接
+        try {
+            return waiting.get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause()
+                    : new IOException("Failed to connect to " + this, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out connecting to " + this);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted connecting to " + this);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (CompletableFuture<Connection> slot : connections) {
+            if (slot != null && slot.isDone() && !slot.isCompletedExceptionally()) {
+                slot.join().close();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return address.getHostString() + ":" + address.getPort();
+    }
+
+    private final class Connection implements Runnable {
+        private final SocketChannel channel;
+        private final JsonRpcWriter writer;
+        private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        Connection(InetSocketAddress address) throws IOException {
+            this.channel = SocketChannel.open();
+            try {
+                channel.socket().connect(address, (int) Math.min(Integer.MAX_VALUE, connectTimeoutMillis));
+                channel.socket().setTcpNoDelay(true);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            this.writer = new JsonRpcWriter(channel, BufferPool.shared(), mapper);
+            Thread reader = new Thread(this, "mcp-remote-" + RemoteNode.this);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        @Override
+        public void run() {
+            IOException failure = new IOException("Connection to " + RemoteNode.this + " closed");
+            try (JsonRpcReader reader = new JsonRpcReader(channel, BufferPool.shared(), mapper)) {
+                JsonNode response;
+                while ((response = reader.read()) != null) {
+                    CompletableFuture<JsonNode> future = pending.get(response.path("id").asLong());
+                    if (future != null) {
+                        future.complete(response);
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            close();
+            for (CompletableFuture<JsonNode> future : pending.values()) {
+                future.completeExceptionally(failure);
+            }
+        }
+
+        void close() {
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 已关闭
+            }
+        }
+    }
+}
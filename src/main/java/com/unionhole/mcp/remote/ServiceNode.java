@@ -0,0 +1,217 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.remote;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unionhole.mcp.runtime.AsyncCalls;
+import com.unionhole.mcp.runtime.CallContext;
+import com.unionhole.mcp.runtime.JsonCodecs;
+import com.unionhole.mcp.runtime.MCPException;
+import com.unionhole.mcp.runtime.ToolHandler;
+import com.unionhole.mcp.runtime.ToolRegistry;
+import com.unionhole.mcp.server.BufferPool;
+import com.unionhole.mcp.server.JsonRpcReader;
+import com.unionhole.mcp.server.JsonRpcWriter;
+import com.unionhole.mcp.vo.MCPRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A service node of a remote facade. It hosts the service implementation and
+ * answers the calls forwarded by {@link RemoteClient}: newline-delimited
+ * JSON-RPC over TCP, {@code {"id", "method": "Service.method/arity", "params"}}
+ * in, {@code {"id", "result"}} or {@code {"id", "error": {"code", "message"}}}
+ * out. Requests of one connection are pipelined, i.e. handled concurrently
+ * and answered as they complete. The generated {@code <Service>Endpoint}
+ * registers the service methods.
+ * <p>
+ * A request may carry the caller's remaining {@code timeout} in milliseconds
+ * and its {@code session}, the method then runs in a {@link CallContext} with
+ * that deadline and session. The
+ * {@code $/cancel} notification and a closed connection cancel the calls of
+ * the caller.
+ * <p>
+ * The node does not authenticate or encrypt: anyone who can connect may call
+ * every registered method. Bind it to the loopback address or a private
+ * network only, e.g.
+ * {@code start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 7070))}.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class ServiceNode implements Closeable {
+    public static final String PING = "ping";
+    public static final String CANCEL = "$/cancel";
+
+    private static final Logger logger = Logger.getLogger(ServiceNode.class.getName());
+
+    private final Map<String, ToolHandler> methods = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper = JsonCodecs.mapper();
+    private final ExecutorService executor;
+    private ServerSocketChannel server;
+
+    public ServiceNode() {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "mcp-node-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ServiceNode register(String method, ToolHandler handler) {
+        methods.put(method, handler);
+        return this;
+    }
+
+    /**
+     * Start accepting connections, port 0 picks a free port. Without a host
+     * the node listens on all interfaces, see the class comment.
+     */
+    public synchronized ServiceNode start(InetSocketAddress address) throws IOException {
+        server = ServerSocketChannel.open().bind(address);
+        executor.execute(this::accept);
+        logger.info("Service node listening on " + getAddress());
+        return this;
+    }
+
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel client = server.accept();
+                client.socket().setTcpNoDelay(true);
+                executor.execute(() -> serve(client));
+            } catch (IOException e) {
+                if (server.isOpen()) {
+                    logger.log(Level.WARNING, "Accept failed", e);
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        JsonRpcWriter writer = new JsonRpcWriter(client, BufferPool.shared(), mapper);
+        Map<Long, CallContext> calls = new ConcurrentHashMap<>();
+        try (JsonRpcReader reader = new JsonRpcReader(client, BufferPool.shared(), mapper)) {
+            JsonNode request;
+            while ((request = reader.read()) != null) {
+                JsonNode message = request;
+                if (CANCEL.equals(message.path("method").asText())) {
+                    CallContext context = calls.get(message.path("params").path("id").asLong());
+                    if (context != null) {
+                        context.cancel();
+                    }
+                    continue;
+                }
+                // 在读取线程上登记调用上下文，调用开始前到达的取消通知也能生效
+                long id = message.path("id").asLong();
+                CallContext context = CallContext.root().child(message.path("timeout").asLong(0),
+                        message.path("session").asText(null));
+                calls.put(id, context);
+                executor.execute(() -> reply(writer, message, id, context, calls));
+            }
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Connection closed", e);
+        } finally {
+            // 调用方断开后放弃它的所有调用
+            for (CallContext context : calls.values()) {
+                context.cancel();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reply(JsonRpcWriter writer, JsonNode request, long id, CallContext context,
+                       Map<Long, CallContext> calls) {
+        String method = request.path("method").asText();
+        CompletableFuture<Object> result;
+        try {
+            Object value;
+            if (PING.equals(method)) {
+                value = PING;
+            } else {
+                ToolHandler handler = methods.get(method);
+                if (handler == null) {
+                    throw new MCPException("Unknown method " + method, ToolRegistry.NOT_FOUND);
+                }
+                Map<String, Object> params = request.hasNonNull("params")
+                        ? mapper.convertValue(request.get("params"), Map.class)
+                        : new LinkedHashMap<>();
+                value = context.run(() -> handler.call(new MCPRequest(params)));
+            }
+            // 异步方法在完成时回复，不占用执行线程
+            result = value instanceof CompletionStage
+                    ? context.runAsync(() -> ((CompletionStage<Object>) value).toCompletableFuture())
+                    : CompletableFuture.completedFuture(value);
+        } catch (Throwable e) {
+            // Error 同样回复，调用方不会一直等待响应
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            calls.remove(id, context);
+            write(writer, id, method, value, AsyncCalls.unwrap(error));
+        });
+    }
+
+    private void write(JsonRpcWriter writer, long id, String method, Object value, Throwable e) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", id);
+        if (e == null) {
+            response.put("result", value);
+        } else {
+            Throwable cause = e instanceof RuntimeException && e.getCause() != null && !(e instanceof MCPException)
+                    ? e.getCause()
+                    : e;
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("code", e instanceof MCPException ? ((MCPException) e).getCode() : "500");
+            error.put("message", String.valueOf(cause.getMessage()));
+            response.put("error", error);
+        }
+        try {
+            writer.write(response);
+        } catch (IOException ex) {
+            logger.log(Level.FINE, "Failed to answer " + method, ex);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-wide admission control for tool execution. At most {@code workers}
+ * tools run at a time; callers beyond that wait in a bounded queue per
+ * priority and are admitted highest priority first (FIFO within a priority).
+ * A caller whose own queue is full is rejected with code 503. When the total
+ * number of waiters reaches {@code maxQueued}, the newest waiter of the lowest
+ * priority below the caller is shed to make room; if there is none the caller
+ * is rejected. Waiters also give up after {@code maxWaitMillis}.
+ *
+ * <p>Settings: {@code mcp.admission.workers} (default 2 x CPUs),
+ * {@code mcp.admission.queueSize} per priority (default 64),
+ * {@code mcp.admission.maxQueued} (default 256) and
+ * {@code mcp.admission.maxWaitMillis} (default 10000). Priorities range from
+ * {@link #MIN_PRIORITY} to {@link #MAX_PRIORITY}.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class AdmissionScheduler {
+    public static final int MIN_PRIORITY = 0;
+    public static final int MAX_PRIORITY = 9;
+    public static final int NORM_PRIORITY = 5;
+
+    private static final AdmissionScheduler shared = new AdmissionScheduler(
+            Integer.getInteger("mcp.admission.workers", Runtime.getRuntime().availableProcessors() * 2),
+            Integer.getInteger("mcp.admission.queueSize", 64),
+            Integer.getInteger("mcp.admission.maxQueued", 256),
+            Long.getLong("mcp.admission.maxWaitMillis", 10_000L));
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter>[] queues;
+    private final int workers;
+    private final int queueSize;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private int running;
+    private int queued;
+    private long shed;
+
+    public AdmissionScheduler(int workers, int queueSize, int maxQueued, long maxWaitMillis) {
+        this.workers = Math.max(1, workers);
+        this.queueSize = Math.max(0, queueSize);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayDeque<Waiter>[] queues = new ArrayDeque[MAX_PRIORITY + 1];
+        this.queues = queues;
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    public static AdmissionScheduler shared() {
+        return shared;
+    }
+
+    /**
+     * Run the call once admitted at the given priority
+     */
+    public <T> T execute(int priority, String tool, ServiceCall<T> call) throws Exception {
+        if (Warmup.isRunning()) {
+            return call.call();
+        }
+        acquire(priority, tool);
+        try {
+            return call.call();
+        } finally {
+            release();
+        }
+    }
+
+    public void acquire(int priority, String tool) throws InterruptedException {
+        int p = Math.max(MIN_PRIORITY, Math.min(MAX_PRIORITY, priority));
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (running < workers && !hasWaitersAtOrAbove(p)) {
+                running++;
+                return;
+            }
+            if (queues[p].size() >= queueSize || (queued >= maxQueued && !shedBelow(p))) {
+                shed++;
+                throw rejected(tool);
+            }
+            waiter = new Waiter(lock.newCondition());
+            queues[p].addLast(waiter);
+            queued++;
+
+            long remaining = maxWaitNanos;
+            while (waiter.state == Waiter.WAITING) {
+                if (remaining <= 0) {
+                    queues[p].remove(waiter);
+                    queued--;
+                    shed++;
+                    throw rejected(tool);
+                }
+                try {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    if (waiter.state == Waiter.ADMITTED) {
+                        // 已获得执行许可，交还给下一个等待者
+                        releaseLocked();
+                    } else if (queues[p].remove(waiter)) {
+                        queued--;
+                    }
+                    throw e;
+                }
+            }
+            if (waiter.state == Waiter.SHED) {
+                throw rejected(tool);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            releaseLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of tools currently running
+     */
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of callers waiting at the given priority
+     */
+    public int getQueued(int priority) {
+        lock.lock();
+        try {
+            return queues[priority].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of calls rejected or shed so far
+     */
+    public long getShed() {
+        lock.lock();
+        try {
+            return shed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked() {
+        for (int p = MAX_PRIORITY; p >= MIN_PRIORITY; p--) {
+            Waiter next = queues[p].pollFirst();
+            if (next != null) {
+                // 直接把许可移交给优先级最高的等待者，running 不变
+                queued--;
+                next.state = Waiter.ADMITTED;
+                next.condition.signal();
+                return;
+            }
+        }
+        running--;
+    }
+
+    private boolean hasWaitersAtOrAbove(int priority) {
+        for (int p = MAX_PRIORITY; p >= priority; p--) {
+            if (!queues[p].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shed the newest waiter of the lowest non-empty priority below the given one
+     */
+    private boolean shedBelow(int priority) {
+        for (int p = MIN_PRIORITY; p < priority; p++) {
+            Waiter victim = queues[p].pollLast();
+            if (victim != null) {
+                queued--;
+                victim.state = Waiter.SHED;
+                victim.condition.signal();
+                shed++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static MCPException rejected(String tool) {
+        return new MCPException("Server overloaded, tool " + tool + " was shed", CircuitBreaker.SERVICE_UNAVAILABLE);
+    }
+
+    private static final class Waiter {
+        private static final int WAITING = 0;
+        private static final int ADMITTED = 1;
+        private static final int SHED = 2;
+
+        private final Condition condition;
+        private int state = WAITING;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Non-blocking counterparts of the facade wrappers for asynchronous service
+ * methods. Each wrapper acts when the future completes instead of holding
+ * the calling thread, and failures are unwrapped like in the synchronous
+ * path: {@link MCPException}s as they are, anything else as a
+ * {@code RuntimeException} with the original message and cause. Cancelling
+ * the returned future cancels the future of the service.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class AsyncCalls {
+    private AsyncCalls() {
+    }
+
+    /**
+     * Start the call, a synchronous failure becomes a failed future
+     */
+    public static <T> CompletableFuture<T> start(AsyncServiceCall<T> call) {
+        CompletableFuture<T> future;
+        try {
+            future = call.call();
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(translate(e));
+        }
+        if (future == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(translate(error));
+            } else {
+                result.complete(value);
+            }
+        });
+        // 调用方取消结果时取消服务端的 future
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Wait for the result on the calling thread, for facades whose framework expects a plain value
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new MCPException("Call cancelled", CallContext.CANCELLED, e);
+        } catch (ExecutionException e) {
+            Throwable cause = translate(e);
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    public static <T> CompletableFuture<T> breaker(CircuitBreaker breaker, AsyncServiceCall<T> call) {
+        if (Warmup.isRunning()) {
+            return start(call);
+        }
+        int permit = breaker.tryAcquirePermission();
+        if (permit == CircuitBreaker.REJECTED) {
+            return CompletableFuture.failedFuture(new MCPException("Circuit breaker open for tool "
+                    + breaker.getName(), CircuitBreaker.SERVICE_UNAVAILABLE));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> result = start(call);
+        result.whenComplete((value, error) -> breaker.onResult(permit, error != null, System.nanoTime() - start));
+        return result;
+    }
+
+    /**
+     * Hold an admission permit until the future completes. Waiting in the queue
+     * still happens on the calling thread.
+     */
+    public static <T> CompletableFuture<T> admit(int priority, String tool, AsyncServiceCall<T> call) {
+        if (Warmup.isRunning()) {
+            return start(call);
+        }
+        AdmissionScheduler scheduler = AdmissionScheduler.shared();
+        try {
+            scheduler.acquire(priority, tool);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(translate(e));
+        }
+        CompletableFuture<T> result = start(call);
+        result.whenComplete((value, error) -> scheduler.release());
+        return result;
+    }
+
+    public static <T> CompletableFuture<T> withTimeout(long timeoutMillis, AsyncServiceCall<T> call) {
+        return CallContext.withTimeoutAsync(timeoutMillis, call);
+    }
+
+    public static <T> CompletableFuture<T> record(String tool, Object[] args, AsyncServiceCall<T> call) {
+        return ToolRecorder.recordAsync(tool, args, call);
+    }
+
+    public static <T> CompletableFuture<T> audit(String tool, Object[] args, AsyncServiceCall<T> call) {
+        return AuditJournal.recordAsync(tool, args, call);
+    }
+
+    public static <T> CompletableFuture<T> capture(String tool, String[] names, Object[] args,
+                                                   AsyncServiceCall<T> call) {
+        return TrafficCapture.captureAsync(tool, names, args, call);
+    }
+
+    /**
+     * The failure behind the completion wrappers of a future, null for null
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static Throwable translate(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof MCPException || cause instanceof Error || cause instanceof CancellationException) {
+            return cause;
+        }
+        // 与同步调用一致，其他异常包装为 RuntimeException
+        return cause instanceof RuntimeException && cause.getClass() == RuntimeException.class
+                && cause.getCause() != null
+                ? cause
+                : new RuntimeException(cause.getMessage(), cause);
+    }
+}
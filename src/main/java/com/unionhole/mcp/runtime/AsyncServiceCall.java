@@ -0,0 +1,32 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The invocation of an asynchronous service method (returning a
+ * {@code CompletableFuture}, {@code CompletionStage}, {@code Mono} or
+ * {@code Flux}), adapted to a {@link CompletableFuture} by the generated facade
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+@FunctionalInterface
+public interface AsyncServiceCall<T> {
+    CompletableFuture<T> call() throws Exception;
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Audit trail of tool calls. A call digests its arguments before it runs, so
+ * later changes to the argument objects do not alter the record, and only
+ * adds the record to a lock-free queue; a background writer appends the
+ * records in batches to memory-mapped segment files, so the tool path does no
+ * I/O. Segments are append-only and roll over when full. Segments are kept
+ * unless {@code mcp.audit.maxSegments} is set; the oldest segments written by
+ * this journal are then deleted beyond it, segments of earlier runs and other
+ * processes sharing the directory are never deleted. Warm-up calls are not
+ * audited.
+ *
+ * <p>Each record is one JSON line: {@code ts} (epoch millis), {@code tool},
+ * {@code session} of the caller, {@code args} (content hash of the JSON
+ * arguments), {@code outcome} ({@code success}, {@code rejected:<code>} or the
+ * exception class) and {@code micros}. Segments are trimmed to their content
+ * when rolled or closed; a segment left by a crashed process ends with zero
+ * bytes after the last record.
+ *
+ * <p>Settings: {@code mcp.audit.dir} (default {@code mcp-audit} in the working
+ * directory), {@code mcp.audit.segmentBytes} (default 16 MB),
+ * {@code mcp.audit.maxSegments} (default 0, keeps all), {@code mcp.audit.queueCapacity}
+ * (default 65536, records beyond it are dropped and counted), {@code mcp.audit.flushMillis} (default 50)
+ * and {@code mcp.audit.enabled} (default true).
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class AuditJournal implements Closeable {
+    private static final Logger logger = Logger.getLogger(AuditJournal.class.getName());
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".jsonl";
+    private static final int BATCH_SIZE = 512;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final int queueCapacity;
+    private final long flushNanos;
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final List<Path> segments = new ArrayList<>();
+    private final Thread writer;
+    private volatile boolean closed;
+    // 以下字段只由写线程访问
+    private int nextSegmentId;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public AuditJournal(Path dir, int segmentBytes, int maxSegments, int queueCapacity, long flushMillis)
+            throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.queueCapacity = queueCapacity;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushMillis));
+        Files.createDirectories(dir);
+        // 已有的段不再写入也不会被删除，从下一个编号开始新段
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                nextSegmentId = Math.max(nextSegmentId, segmentId(file) + 1);
+            }
+        }
+        openSegment();
+        writer = new Thread(this::drain, "mcp-audit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * The process-wide journal, null if disabled or the directory cannot be opened
+     */
+    public static AuditJournal shared() {
+        return Holder.shared;
+    }
+
+    public static <T> T record(String tool, Object[] args, ServiceCall<T> call) throws Exception {
+        AuditJournal journal = shared();
+        if (journal == null || Warmup.isRunning()) {
+            return call.call();
+        }
+        String session = CallContext.current().getSession();
+        // 在调用前计算摘要，服务修改参数对象不影响记录
+        String digest = digest(tool, args);
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return call.call();
+        } catch (Throwable e) {
+            // Error 同样记录为失败
+            outcome = ToolRecorder.outcome(e);
+            throw e;
+        } finally {
+            journal.enqueue(tool, session, digest, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Audit an asynchronous call when its future completes
+     */
+    public static <T> CompletableFuture<T> recordAsync(String tool, Object[] args, AsyncServiceCall<T> call) {
+        AuditJournal journal = shared();
+        if (journal == null || Warmup.isRunning()) {
+            return AsyncCalls.start(call);
+        }
+        String session = CallContext.current().getSession();
+        String digest = digest(tool, args);
+        long start = System.nanoTime();
+        CompletableFuture<T> result = AsyncCalls.start(call);
+        result.whenComplete((value, error) -> {
+            Throwable cause = AsyncCalls.unwrap(error);
+            journal.enqueue(tool, session, digest, cause == null ? "success" : ToolRecorder.outcome(cause),
+                    System.nanoTime() - start);
+        });
+        return result;
+    }
+
+    /**
+     * Queue a record for the writer, false if the queue is full and the record
+     * was dropped. The arguments are digested on the calling thread.
+     */
+    public boolean append(String tool, String session, Object[] args, String outcome, long durationNanos) {
+        return enqueue(tool, session, digest(tool, args), outcome, durationNanos);
+    }
+
+    private boolean enqueue(String tool, String session, String digest, String outcome, long durationNanos) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            // 不阻塞调用线程，队列满时丢弃并计数
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(new Entry(System.currentTimeMillis(), tool, session, digest, outcome, durationNanos));
+        return true;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * Write the queued records and trim the active segment
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            Entry entry;
+            while (batch.size() < BATCH_SIZE && (entry = queue.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                if (closed && queue.isEmpty()) {
+                    break;
+                }
+                // 队列为空时按刷新间隔等待，调用线程从不唤醒写线程
+                LockSupport.parkNanos(this, flushNanos);
+                continue;
+            }
+            queued.addAndGet(-batch.size());
+            for (Entry queuedEntry : batch) {
+                try {
+                    write(encode(queuedEntry));
+                    written.increment();
+                } catch (IOException | RuntimeException e) {
+                    dropped.increment();
+                    logger.log(Level.WARNING, "Failed to write audit record of " + queuedEntry.tool, e);
+                }
+            }
+            batch.clear();
+        }
+        try {
+            if (buffer != null) {
+                closeSegment();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close audit segment", e);
+        }
+    }
+
+    /**
+     * Content hash of the JSON arguments, null if they cannot be serialized
+     */
+    private static String digest(String tool, Object[] args) {
+        try {
+            return ConditionalResults.hash(tool, JsonCodecs.mapper().writeValueAsBytes(args));
+        } catch (JsonProcessingException e) {
+            logger.log(Level.FINE, "Failed to digest the arguments of " + tool, e);
+            return null;
+        }
+    }
+
+    private byte[] encode(Entry entry) throws JsonProcessingException {
+        ObjectNode node = JsonCodecs.mapper().createObjectNode();
+        node.put("ts", entry.timestamp);
+        node.put("tool", entry.tool);
+        node.put("session", entry.session);
+        node.put("args", entry.digest);
+        node.put("outcome", entry.outcome);
+        node.put("micros", TimeUnit.NANOSECONDS.toMicros(entry.durationNanos));
+        byte[] json = JsonCodecs.mapper().writeValueAsBytes(node);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    private void write(byte[] line) throws IOException {
+        if (line.length > segmentBytes) {
+            throw new IOException("Audit record of " + line.length + " bytes exceeds the segment size");
+        }
+        if (buffer != null && buffer.remaining() < line.length) {
+            closeSegment();
+        }
+        if (buffer == null) {
+            openSegment();
+        }
+        buffer.put(line);
+    }
+
+    private void openSegment() throws IOException {
+        Path path;
+        while (true) {
+            path = dir.resolve(SEGMENT_PREFIX + nextSegmentId++ + SEGMENT_SUFFIX);
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // 同一目录下的其他进程已经创建了该段
+            }
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        // 只记录本实例创建的段，保留数量只作用于这些段
+        segments.add(path);
+        while (maxSegments > 0 && segments.size() > maxSegments) {
+            Files.deleteIfExists(segments.remove(0));
+        }
+    }
+
+    /**
+     * Force the written records to disk and cut the segment file to their length
+     */
+    private void closeSegment() throws IOException {
+        MappedByteBuffer full = buffer;
+        FileChannel file = channel;
+        buffer = null;
+        channel = null;
+        // 截断后不能再访问映射，文件之外的映射区域会导致 SIGBUS
+        full.force();
+        file.truncate(full.position());
+        file.close();
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            // 忽略不是由审计日志创建的文件
+            return -1;
+        }
+    }
+
+    private static final class Entry {
+        final long timestamp;
+        final String tool;
+        final String session;
+        final String digest;
+        final String outcome;
+        final long durationNanos;
+
+        Entry(long timestamp, String tool, String session, String digest, String outcome, long durationNanos) {
+            this.timestamp = timestamp;
+            this.tool = tool;
+            this.session = session;
+            this.digest = digest;
+            this.outcome = outcome;
+            this.durationNanos = durationNanos;
+        }
+    }
+
+    private static final class Holder {
+        static final AuditJournal shared = open();
+
+        private static AuditJournal open() {
+            if (!Boolean.parseBoolean(System.getProperty("mcp.audit.enabled", "true"))) {
+                return null;
+            }
+            // 审计记录需要保留，默认不放在可能被系统清理的临时目录
+            Path dir = Paths.get(System.getProperty("mcp.audit.dir", "mcp-audit")).toAbsolutePath();
+            try {
+                AuditJournal journal = new AuditJournal(dir, Integer.getInteger("mcp.audit.segmentBytes", 16 << 20),
+                        Integer.getInteger("mcp.audit.maxSegments", 0),
+                        Integer.getInteger("mcp.audit.queueCapacity", 65536),
+                        Long.getLong("mcp.audit.flushMillis", 50L));
+                // 退出前写完队列中的记录
+                Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "mcp-audit-shutdown"));
+                return journal;
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Audit journal disabled: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+}
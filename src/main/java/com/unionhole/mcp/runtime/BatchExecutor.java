@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.unionhole.mcp.vo.BatchCall;
+import com.unionhole.mcp.vo.MCPResponse;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the independent tool calls of a batch concurrently through the
+ * {@link ToolRegistry}. Each call runs on its own virtual thread (on Java 21+,
+ * a cached pool of daemon threads before), at most {@code maxConcurrency} of
+ * a batch at a time: the calling thread takes a permit before it submits a
+ * call, so no more tasks exist than may run. Calls run in the
+ * {@link CallContext} of the caller: they keep its deadline and session, and
+ * cancelling it skips the calls not yet started. Results are returned in call
+ * order, failed calls as {@link MCPResponse#error}.
+ *
+ * <p>{@link #register()} adds the batch itself as the {@value #TOOL_NAME}
+ * tool, taking a {@code calls} array of {@code {tool, arguments}} objects;
+ * {@code McpServer} registers it on construction. A batch cannot call
+ * {@value #TOOL_NAME} again.
+ *
+ * <p>Settings: {@code mcp.batch.maxCalls} (default 64) and
+ * {@code mcp.batch.maxConcurrency} (default 8).
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class BatchExecutor {
+    public static final String TOOL_NAME = "callTools";
+
+    private static final String INPUT_SCHEMA = "{\"type\":\"object\",\"properties\":{\"calls\":{\"type\":\"array\","
+            + "\"items\":{\"type\":\"object\",\"properties\":{\"tool\":{\"type\":\"string\"},"
+            + "\"arguments\":{\"type\":\"object\"}},\"required\":[\"tool\"]}}},\"required\":[\"calls\"]}";
+    private static final ExecutorService executor = newExecutor();
+    private static final int maxCalls = Integer.getInteger("mcp.batch.maxCalls", 64);
+    private static final int defaultConcurrency = Integer.getInteger("mcp.batch.maxConcurrency", 8);
+
+    private BatchExecutor() {
+    }
+
+    /**
+     * Register the {@value #TOOL_NAME} tool, registering it again has no effect
+     */
+    public static void register() {
+        ToolRegistry.register(new ToolDefinition(TOOL_NAME,
+                "Call several independent tools concurrently and return their results in call order",
+                INPUT_SCHEMA, BatchExecutor.class,
+                request -> execute(request.getParameter("calls", new TypeReference<List<BatchCall>>() {
+                }))));
+    }
+
+    public static List<MCPResponse> execute(List<BatchCall> calls) {
+        return execute(calls, defaultConcurrency);
+    }
+
+    public static List<MCPResponse> execute(List<BatchCall> calls, int maxConcurrency) {
+        if (calls == null || calls.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (calls.size() > maxCalls) {
+            throw new MCPException("Batch of " + calls.size() + " calls exceeds the limit of " + maxCalls,
+                    MCPException.BAD_REQUEST);
+        }
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrency));
+        List<CompletableFuture<MCPResponse>> futures = new ArrayList<>(calls.size());
+        for (BatchCall call : calls) {
+            if (call != null && TOOL_NAME.equals(call.getTool())) {
+                // 批量调用不能嵌套，避免一个请求展开为任意多个调用
+                futures.add(CompletableFuture.completedFuture(
+                        new MCPException("Nested " + TOOL_NAME + " is not supported", MCPException.BAD_REQUEST).toResponse()));
+                continue;
+            }
+            // 先取得许可再提交，同时存在的任务数不超过并发上限
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.add(CompletableFuture.completedFuture(MCPResponse.error("Batch interrupted")));
+                continue;
+            }
+            // 在调用方的上下文中执行，沿用截止时间、取消状态和会话
+            ServiceCall<Object> item = CallContext.propagate(() -> {
+                Object result = ToolRegistry.call(call.getTool(), call.getArguments());
+                // 异步工具完成前一直占用并发许可
+                if (result instanceof CompletionStage) {
+                    result = AsyncCalls.await(((CompletionStage<?>) result).toCompletableFuture());
+                }
+                return result;
+            });
+            try {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return MCPResponse.success(item.call());
+                    } catch (MCPException e) {
+                        return e.toResponse();
+                    } catch (Exception e) {
+                        return MCPResponse.error(String.valueOf(e.getMessage()));
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                futures.add(CompletableFuture.completedFuture(MCPResponse.error("Batch call rejected")));
+            }
+        }
+        List<MCPResponse> responses = new ArrayList<>(futures.size());
+        for (CompletableFuture<MCPResponse> future : futures) {
+            try {
+                responses.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                responses.add(MCPResponse.error("Batch interrupted"));
+            } catch (ExecutionException e) {
+                responses.add(MCPResponse.error(String.valueOf(e.getCause().getMessage())));
+            }
+        }
+        return responses;
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            // Java 21+ 使用虚拟线程，编译目标仍为 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "mcp-batch-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline and cancellation of a tool call. The context of the running call
+ * is available from {@link #current()}; services that declare a
+ * {@code CallContext} parameter receive it from the generated facade (the
+ * parameter is not part of the tool arguments) and can check
+ * {@link #remainingMillis()} or {@link #isCancelled()} themselves.
+ * <p>
+ * {@link #run(ServiceCall)} makes a context current and interrupts the
+ * calling thread when the context is cancelled or its deadline passes, the
+ * call then fails with {@link #CANCELLED} or {@link #DEADLINE_EXCEEDED}
+ * whatever it returns. Cancelling a context cancels its children.
+ * <p>
+ * A context may carry the session of the caller, e.g. the MCP connection the
+ * call came in on; children inherit it.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class CallContext {
+    public static final String CANCELLED = "499";
+    public static final String DEADLINE_EXCEEDED = "504";
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final CallContext ROOT = new CallContext(null, NO_DEADLINE, null);
+    private static final ThreadLocal<CallContext> current = new ThreadLocal<>();
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "mcp-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CallContext parent;
+    // System.nanoTime() 时间基准下的截止时间
+    private final long deadline;
+    private final String session;
+    private final List<Runnable> listeners = new ArrayList<>();
+    private Runnable detach;
+    private volatile String cancelCode;
+
+    private CallContext(CallContext parent, long deadline, String session) {
+        this.parent = parent;
+        this.deadline = deadline;
+        this.session = session;
+    }
+
+    /**
+     * The context of the running call, the root context (no deadline, never
+     * cancelled) outside of any call
+     */
+    public static CallContext current() {
+        CallContext context = current.get();
+        return context != null ? context : ROOT;
+    }
+
+    public static CallContext root() {
+        return ROOT;
+    }
+
+    /**
+     * Run a call in a child of the current context with the given timeout, 0 keeps the current deadline
+     */
+    public static <T> T withTimeout(long timeoutMillis, ServiceCall<T> call) throws Exception {
+        CallContext context = current().child(timeoutMillis);
+        try {
+            return context.run(call);
+        } finally {
+            context.detach();
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #withTimeout(long, ServiceCall)}
+     */
+    public static <T> CompletableFuture<T> withTimeoutAsync(long timeoutMillis, AsyncServiceCall<T> call) {
+        CallContext context = current().child(timeoutMillis);
+        CompletableFuture<T> result = context.runAsync(call);
+        result.whenComplete((value, error) -> context.detach());
+        return result;
+    }
+
+    /**
+     * Wrap a call handed to another thread so that it runs in the current context
+     */
+    public static <T> ServiceCall<T> propagate(ServiceCall<T> call) {
+        CallContext context = current();
+        return context == ROOT ? call : () -> context.run(call);
+    }
+
+    /**
+     * A child context, its deadline is the earlier of the parent deadline and
+     * now plus {@code timeoutMillis} (ignored when not positive)
+     */
+    public CallContext child(long timeoutMillis) {
+        return child(timeoutMillis, session);
+    }
+
+    /**
+     * A child context of the given caller session, null keeps the session of this context
+     */
+    public CallContext child(long timeoutMillis, String session) {
+        long childDeadline = deadline;
+        if (timeoutMillis > 0) {
+            childDeadline = Math.min(deadline, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        }
+        CallContext child = new CallContext(this, childDeadline, session != null ? session : this.session);
+        if (this != ROOT) {
+            Runnable propagate = () -> child.cancel(cancelCode);
+            child.detach = () -> removeListener(propagate);
+            onCancel(propagate);
+        }
+        return child;
+    }
+
+    /**
+     * Session of the caller, null if unknown
+     */
+    public String getSession() {
+        return session;
+    }
+
+    public boolean hasDeadline() {
+        return deadline != NO_DEADLINE;
+    }
+
+    /**
+     * Milliseconds until the deadline, {@code Long.MAX_VALUE} without one
+     */
+    public long remainingMillis() {
+        if (!hasDeadline()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    public boolean isCancelled() {
+        if (cancelCode == null && hasDeadline() && System.nanoTime() - deadline >= 0) {
+            cancel(DEADLINE_EXCEEDED);
+        }
+        return cancelCode != null;
+    }
+
+    /**
+     * Throw if the call has been cancelled or has passed its deadline
+     */
+    public void checkCancelled() {
+        if (isCancelled()) {
+            throw failure();
+        }
+    }
+
+    /**
+     * Cancel the call, e.g. on a client cancellation or disconnect
+     */
+    public void cancel() {
+        cancel(CANCELLED);
+    }
+
+    /**
+     * Run the listener when the context is cancelled, right away if it already is
+     */
+    public void onCancel(Runnable listener) {
+        if (!addListener(listener)) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Run a call in this context, interrupting the thread when the context is
+     * cancelled or the deadline passes
+     */
+    public <T> T run(ServiceCall<T> call) throws Exception {
+        checkCancelled();
+        Execution execution = new Execution(Thread.currentThread());
+        CallContext previous = current.get();
+        current.set(this);
+        ScheduledFuture<?> expiry = hasDeadline()
+                ? timer.schedule(() -> cancel(DEADLINE_EXCEEDED), deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                : null;
+        addListener(execution);
+        try {
+            T result = call.call();
+            execution.finish();
+            checkCancelled();
+            return result;
+        } catch (Exception e) {
+            execution.finish();
+            // 被取消的调用无论以何种方式结束，都按取消处理
+            if (isCancelled()) {
+                throw failure();
+            }
+            throw e;
+        } finally {
+            removeListener(execution);
+            if (expiry != null) {
+                expiry.cancel(false);
+            }
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * Start an asynchronous call in this context. Cancellation or the deadline
+     * cancels the service future and fails the result, no thread is held.
+     */
+    public <T> CompletableFuture<T> runAsync(AsyncServiceCall<T> call) {
+        if (isCancelled()) {
+            return CompletableFuture.failedFuture(failure());
+        }
+        CallContext previous = current.get();
+        current.set(this);
+        CompletableFuture<T> source;
+        try {
+            source = AsyncCalls.start(call);
+        } finally {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable abandon = () -> {
+            result.completeExceptionally(failure());
+            source.cancel(true);
+        };
+        ScheduledFuture<?> expiry = hasDeadline()
+                ? timer.schedule(() -> cancel(DEADLINE_EXCEEDED), deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                : null;
+        onCancel(abandon);
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            removeListener(abandon);
+            if (expiry != null) {
+                expiry.cancel(false);
+            }
+            if (result.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private MCPException failure() {
+        return DEADLINE_EXCEEDED.equals(cancelCode)
+                ? new MCPException("Deadline exceeded", DEADLINE_EXCEEDED)
+                : new MCPException("Call cancelled", cancelCode);
+    }
+
+    private void cancel(String code) {
+        if (this == ROOT || code == null) {
+            return;
+        }
+        List<Runnable> notify;
+        synchronized (this) {
+            if (cancelCode != null) {
+                return;
+            }
+            cancelCode = code;
+            notify = new ArrayList<>(listeners);
+            listeners.clear();
+        }
+        for (Runnable listener : notify) {
+            listener.run();
+        }
+    }
+
+    private void detach() {
+        if (detach != null) {
+            detach.run();
+        }
+    }
+
+    private synchronized boolean addListener(Runnable listener) {
+        if (cancelCode != null || this == ROOT) {
+            return this == ROOT;
+        }
+        listeners.add(listener);
+        return true;
+    }
+
+    private synchronized void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Interrupts the running thread on cancellation until the call has finished
+     */
+    private static final class Execution implements Runnable {
+        private final Thread thread;
+        private boolean finished;
+        private boolean interrupted;
+
+        Execution(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!finished) {
+                interrupted = true;
+                thread.interrupt();
+            }
+        }
+
+        synchronized void finish() {
+            finished = true;
+            if (interrupted) {
+                // 清除取消时设置的中断标志，避免影响线程池中的后续任务
+                interrupted = false;
+                Thread.interrupted();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.List;
+
+/**
+ * Receiver of the chunks produced by a streaming tool, typically bridged to
+ * MCP progress notifications or partial content by the hosting server
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+@FunctionalInterface
+public interface ChunkSink {
+    /**
+     * Called once per chunk, in order. The list is only valid for the
+     * duration of the call and is reused for the next chunk.
+     *
+     * @param tool     tool (facade method) name
+     * @param sequence zero based chunk index
+     * @param items    elements of this chunk
+     */
+    void onChunk(String tool, int sequence, List<?> items) throws Exception;
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.unionhole.mcp.vo.ChunkedResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Drains Stream/Iterator results of generated facades in bounded chunks.
+ * The sink bound to the current thread wins over the global one; without
+ * any sink the elements are collected into the result as before. Collection
+ * results are paged instead and Flux results are collected as asynchronous
+ * results, neither is chunked.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class ChunkedResults {
+    private static final ThreadLocal<ChunkSink> CURRENT_SINK = new ThreadLocal<>();
+    private static volatile ChunkSink globalSink;
+
+    private ChunkedResults() {
+    }
+
+    /**
+     * Install the sink used by all threads without a bound sink, null to remove it
+     */
+    public static void setGlobalSink(ChunkSink sink) {
+        globalSink = sink;
+    }
+
+    /**
+     * Bind a sink to the current thread, e.g. the one McpServer binds to
+     * forward chunks as progress notifications of the request being served.
+     * Returns the previous sink so that callers can restore it.
+     */
+    public static ChunkSink bind(ChunkSink sink) {
+        ChunkSink previous = CURRENT_SINK.get();
+        if (sink == null) {
+            CURRENT_SINK.remove();
+        } else {
+            CURRENT_SINK.set(sink);
+        }
+        return previous;
+    }
+
+    public static ChunkedResult drain(String tool, Stream<?> stream, int chunkSize) throws Exception {
+        if (stream == null) {
+            return new ChunkedResult(false, 0, 0, Collections.emptyList());
+        }
+        try (Stream<?> s = stream) {
+            return drain(tool, s.iterator(), chunkSize);
+        }
+    }
+
+    public static ChunkedResult drain(String tool, Iterator<?> iterator, int chunkSize) throws Exception {
+        if (iterator == null) {
+            return new ChunkedResult(false, 0, 0, Collections.emptyList());
+        }
+        ChunkSink sink = CURRENT_SINK.get();
+        if (sink == null) {
+            sink = globalSink;
+        }
+        if (sink == null) {
+            List<Object> items = new ArrayList<>();
+            iterator.forEachRemaining(items::add);
+            return new ChunkedResult(false, items.isEmpty() ? 0 : 1, items.size(), items);
+        }
+
+        int size = Math.max(1, chunkSize);
+        List<Object> buffer = new ArrayList<>(size);
+        int sequence = 0;
+        long total = 0;
+        while (iterator.hasNext()) {
+            buffer.add(iterator.next());
+            total++;
+            if (buffer.size() == size) {
+                sink.onChunk(tool, sequence++, buffer);
+                buffer.clear();
+            }
+        }
+        if (!buffer.isEmpty()) {
+            sink.onChunk(tool, sequence++, buffer);
+        }
+        return new ChunkedResult(true, sequence, total, null);
+    }
+}
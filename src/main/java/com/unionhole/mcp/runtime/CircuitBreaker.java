@@ -0,0 +1,254 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker of one tool.
+ *
+ * <p>While CLOSED every call goes through and its outcome is recorded in a
+ * ring of the last {@code windowSize} calls. Once {@code minimumCalls} are
+ * recorded and either the failure rate or the slow-call rate reaches its
+ * threshold the breaker OPENs and rejects calls immediately. After
+ * {@code openMillis} it becomes HALF_OPEN and lets {@code halfOpenCalls}
+ * probes through; their outcome decides whether it closes or opens again.
+ *
+ * <p>Each permission carries the state it was granted in, an outcome only
+ * counts for that state: calls admitted while CLOSED that finish after the
+ * breaker opened are not taken for probes, and probes that outlive a manual
+ * {@link #reset()} are not recorded in the new window.
+ *
+ * <p>The closed fast path only reads a volatile field, recording an outcome
+ * takes a short lock.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class CircuitBreaker {
+    public static final String SERVICE_UNAVAILABLE = "503";
+    /**
+     * Returned by {@link #tryAcquirePermission()} when the call is rejected
+     */
+    public static final int REJECTED = -1;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+    private static final State[] STATES = State.values();
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final int slowCallRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final byte[] window;
+    private int windowIndex;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    /**
+     * Generation of the current state in the high bits, the state ordinal in
+     * the low two bits; the generation changes on every transition
+     */
+    private volatile int stamp = State.CLOSED.ordinal();
+    private long openedAt;
+    private int probesStarted;
+    private int probesFinished;
+    private int probeFailures;
+
+    public CircuitBreaker(String name, int failureRateThreshold, long slowCallMillis, int slowCallRateThreshold,
+                          int windowSize, int minimumCalls, long openMillis, int halfOpenCalls) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowCallMillis) : Long.MAX_VALUE;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.window = new byte[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    /**
+     * Run the call through the breaker, failing fast with code 503 while open
+     */
+    public <T> T execute(ServiceCall<T> call) throws Exception {
+        if (Warmup.isRunning()) {
+            return call.call();
+        }
+        int permit = tryAcquirePermission();
+        if (permit == REJECTED) {
+            throw new MCPException("Circuit breaker open for tool " + name, SERVICE_UNAVAILABLE);
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.call();
+            failed = false;
+            return result;
+        } finally {
+            // Error 也要记录结果，否则半开状态的探测名额不会归还
+            onResult(permit, failed, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Ask to run a call
+     *
+     * @return the permit to pass to {@link #onResult(int, boolean, long)}, or {@link #REJECTED}
+     */
+    public int tryAcquirePermission() {
+        int current = stamp;
+        if (state(current) == State.CLOSED) {
+            return current;
+        }
+        synchronized (this) {
+            State state = getState();
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return REJECTED;
+                }
+                transitionTo(State.HALF_OPEN);
+                state = State.HALF_OPEN;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= halfOpenCalls) {
+                    return REJECTED;
+                }
+                probesStarted++;
+            }
+            return stamp;
+        }
+    }
+
+    /**
+     * Record the outcome of a call admitted with the given permit
+     */
+    public synchronized void onResult(int permit, boolean failed, long durationNanos) {
+        if (permit != stamp) {
+            // 许可在之前的状态下发放，结果不计入当前状态
+            return;
+        }
+        boolean slow = durationNanos >= slowCallNanos;
+        State state = getState();
+        if (state == State.HALF_OPEN) {
+            probesFinished++;
+            if (failed || slow) {
+                probeFailures++;
+            }
+            if (probesFinished >= halfOpenCalls) {
+                transitionTo(probeFailures * 100 >= failureRateThreshold * halfOpenCalls ? State.OPEN : State.CLOSED);
+            }
+            return;
+        }
+        byte outcome = (byte) ((failed ? FAILURE : 0) | (slow ? SLOW : 0));
+        if (recorded == window.length) {
+            remove(window[windowIndex]);
+        } else {
+            recorded++;
+        }
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        if (failed) {
+            failures++;
+        }
+        if (slow) {
+            slowCalls++;
+        }
+        if (recorded >= minimumCalls
+                && (failures * 100 >= failureRateThreshold * recorded
+                || slowCalls * 100 >= slowCallRateThreshold * recorded)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state(stamp);
+    }
+
+    /**
+     * Failure rate in percent over the current window, -1 when not enough calls were recorded
+     */
+    public synchronized float getFailureRate() {
+        return recorded < minimumCalls ? -1 : failures * 100f / recorded;
+    }
+
+    /**
+     * Slow-call rate in percent over the current window, -1 when not enough calls were recorded
+     */
+    public synchronized float getSlowCallRate() {
+        return recorded < minimumCalls ? -1 : slowCalls * 100f / recorded;
+    }
+
+    /**
+     * Open the breaker manually, e.g. during a known backend outage
+     */
+    public synchronized void forceOpen() {
+        transitionTo(State.OPEN);
+    }
+
+    /**
+     * Close the breaker and forget all recorded calls
+     */
+    public synchronized void reset() {
+        transitionTo(State.CLOSED);
+    }
+
+    private void remove(byte outcome) {
+        // 失败和慢调用按位记录，一次调用可能同时属于两者
+        if ((outcome & FAILURE) != 0) {
+            failures--;
+        }
+        if ((outcome & SLOW) != 0) {
+            slowCalls--;
+        }
+    }
+
+    private static State state(int stamp) {
+        return STATES[stamp & 3];
+    }
+
+    private void transitionTo(State next) {
+        stamp = ((stamp >>> 2) + 1) << 2 | next.ordinal();
+        windowIndex = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        probesStarted = 0;
+        probesFinished = 0;
+        probeFailures = 0;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" + name + ", " + getState() + "}";
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the circuit breakers created by generated facades, keyed by
+ * {@code Service.tool}, i.e. the registered tool name, so that overloads
+ * such as {@code Service.find_1_string} get breakers of their own; for
+ * health endpoints and manual intervention
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class CircuitBreakers {
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private CircuitBreakers() {
+    }
+
+    /**
+     * Register a breaker, an existing breaker with the same name is kept and returned
+     */
+    public static CircuitBreaker register(CircuitBreaker breaker) {
+        CircuitBreaker existing = breakers.putIfAbsent(breaker.getName(), breaker);
+        return existing != null ? existing : breaker;
+    }
+
+    public static CircuitBreaker get(String name) {
+        return breakers.get(name);
+    }
+
+    public static Collection<CircuitBreaker> all() {
+        return new ArrayList<>(breakers.values());
+    }
+}
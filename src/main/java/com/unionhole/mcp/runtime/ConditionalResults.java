@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.unionhole.mcp.vo.ConditionalResult;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Content hashes for conditional tools. The result is serialized once, its
+ * hash compared with the hash the client saw last, and either an "unchanged"
+ * marker or the serialized JSON is returned, so polling an unchanged result
+ * costs neither the payload bytes nor a second serialization.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class ConditionalResults {
+    // 截取 SHA-256 的前 128 位，足以区分同一工具的不同结果
+    private static final int HASH_BYTES = 16;
+    private static final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private ConditionalResults() {
+    }
+
+    /**
+     * Run the call and return its result unless its hash equals {@code ifNoneMatch}
+     */
+    public static ConditionalResult ifChanged(String tool, String ifNoneMatch, ServiceCall<?> call) throws Exception {
+        Object result = call.call();
+        byte[] json;
+        Object raw = result instanceof RawValue ? ((RawValue) result).rawValue() : null;
+        if (raw instanceof String) {
+            // 缓存命中的结果已经是 JSON 文本，无需再次序列化
+            json = ((String) raw).getBytes(StandardCharsets.UTF_8);
+        } else if (raw instanceof SerializableString) {
+            json = ((SerializableString) raw).asUnquotedUTF8();
+        } else {
+            json = JsonCodecs.mapper().writeValueAsBytes(result);
+        }
+        String hash = hash(tool, json);
+        if (hash.equals(ifNoneMatch)) {
+            return ConditionalResult.unchanged(hash);
+        }
+        return new ConditionalResult(hash, false,
+                raw != null ? result : new RawValue(new String(json, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Hash of a serialized result, the tool name is included so hashes of different tools never match
+     */
+    public static String hash(String tool, byte[] json) {
+        MessageDigest digest = digests.get();
+        digest.reset();
+        digest.update(tool.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        byte[] hash = digest.digest(json);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, HASH_BYTES));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedged execution of an idempotent tool: the call runs on the hedge pool and,
+ * if it has not finished after {@code hedgeAfterMillis}, a second identical
+ * call is started. The first successful result wins and the other attempt is
+ * cancelled (interrupted). If both fail the first failure is thrown.
+ *
+ * <p>Hedges are paid for from a budget that every call tops up by
+ * {@code budgetPercent}, so at most that share of calls is ever duplicated,
+ * even when the whole backend is slow. Pool settings:
+ * {@code mcp.hedge.maxThreads} (default 256). When the pool is exhausted the
+ * call simply runs on the caller thread without hedging.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class Hedger {
+    private static final long CREDIT = 100;
+    private static final long MAX_SAVED_HEDGES = 10;
+    private static final ThreadPoolExecutor pool = createPool();
+
+    private final String name;
+    private final long hedgeAfterNanos;
+    private final int budgetPercent;
+    private final AtomicLong budget = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    public Hedger(String name, long hedgeAfterMillis, int budgetPercent) {
+        this.name = name;
+        this.hedgeAfterNanos = TimeUnit.MILLISECONDS.toNanos(hedgeAfterMillis);
+        this.budgetPercent = Math.max(0, Math.min(100, budgetPercent));
+    }
+
+    public <T> T execute(ServiceCall<T> serviceCall) throws Exception {
+        // 尝试在对冲线程池中执行，沿用调用方的截止时间和取消状态
+        ServiceCall<T> call = CallContext.propagate(serviceCall);
+        deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Future<?> primary;
+        try {
+            primary = pool.submit(() -> attempt(call, result, pending, failure, false));
+        } catch (RejectedExecutionException e) {
+            return call.call();
+        }
+        Future<?> hedge = null;
+        try {
+            try {
+                return result.get(hedgeAfterNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (withdraw()) {
+                    pending.incrementAndGet();
+                    try {
+                        hedge = pool.submit(() -> attempt(call, result, pending, failure, true));
+                        hedges.incrementAndGet();
+                    } catch (RejectedExecutionException rejected) {
+                        // 主调用可能已在此期间失败，此时由这里结束调用
+                        if (pending.decrementAndGet() == 0) {
+                            result.completeExceptionally(failure.get());
+                        }
+                    }
+                }
+            }
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of hedge calls started
+     */
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    /**
+     * Number of calls where the hedge finished first
+     */
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    private <T> void attempt(ServiceCall<T> call, CompletableFuture<T> result, AtomicInteger pending,
+                             AtomicReference<Throwable> failure, boolean hedge) {
+        try {
+            T value = call.call();
+            if (result.complete(value) && hedge) {
+                hedgeWins.incrementAndGet();
+            }
+        } catch (Throwable t) {
+            // 只有全部尝试都失败时才返回失败，抛出最先发生的失败
+            failure.compareAndSet(null, t);
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(failure.get());
+            }
+            return;
+        }
+        pending.decrementAndGet();
+    }
+
+    private void deposit() {
+        long max = CREDIT * MAX_SAVED_HEDGES;
+        long current;
+        do {
+            current = budget.get();
+            if (current >= max) {
+                return;
+            }
+        } while (!budget.compareAndSet(current, Math.min(max, current + budgetPercent)));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < CREDIT) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - CREDIT));
+        return true;
+    }
+
+    private static ThreadPoolExecutor createPool() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.getInteger("mcp.hedge.maxThreads", 256),
+                60L, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "mcp-hedge-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
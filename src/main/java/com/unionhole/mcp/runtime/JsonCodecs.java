@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerFactory;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.introspect.DefaultAccessorNamingStrategy;
+import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
+import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared ObjectMapper of the facade runtime. Generated facades register the
+ * compile-time codecs of their service ({@code <Service>JsonModule}) here, so
+ * request binding and result serialization of DTOs do not go through bean
+ * introspection.
+ *
+ * <p>The generated codecs implement Jackson's default bean handling of the
+ * DTOs, plus {@code NON_NULL} inclusion and the unknown-property settings.
+ * Under any other configuration that changes how a bean is read or written
+ * (naming strategy, mix-ins, other inclusions, ...) they hand the type back
+ * to Jackson's own bean codecs.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class JsonCodecs {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Set<Object> registered = ConcurrentHashMap.newKeySet();
+    // 可见性规则没有 equals，按描述比较
+    private static final String DEFAULT_VISIBILITY = VisibilityChecker.Std.defaultInstance().toString();
+
+    private JsonCodecs() {
+    }
+
+    public static ObjectMapper mapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Register a module once, modules with the same type id are ignored
+     */
+    public static void register(Module module) {
+        if (registered.add(module.getTypeId())) {
+            objectMapper.registerModule(module);
+        }
+    }
+
+    /**
+     * Whether generated codecs of a type behave like Jackson's bean codecs
+     * under the given configuration
+     */
+    public static boolean supportsGeneratedCodecs(MapperConfig<?> config, Class<?> type) {
+        if (config.getPropertyNamingStrategy() != null || config.findMixInClassFor(type) != null
+                || config.findConfigOverride(type) != null
+                || config.getAccessorNaming().getClass() != DefaultAccessorNamingStrategy.Provider.class
+                || !DEFAULT_VISIBILITY.equals(config.getDefaultVisibilityChecker().toString())
+                || !JsonSetter.Value.empty().equals(config.getDefaultSetterInfo())
+                || config.isEnabled(MapperFeature.USE_STD_BEAN_NAMING)
+                || config.isEnabled(MapperFeature.USE_STATIC_TYPING)
+                || config.isEnabled(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)
+                || config.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                || config.isEnabled(MapperFeature.REQUIRE_SETTERS_FOR_GETTERS)
+                || !config.isEnabled(MapperFeature.AUTO_DETECT_GETTERS)
+                || !config.isEnabled(MapperFeature.AUTO_DETECT_IS_GETTERS)
+                || !config.isEnabled(MapperFeature.AUTO_DETECT_SETTERS)) {
+            return false;
+        }
+        JsonIgnoreProperties.Value ignorals = config.getDefaultPropertyIgnorals(type);
+        if (ignorals != null && (ignorals.getIgnoreUnknown() || !ignorals.getIgnored().isEmpty())) {
+            return false;
+        }
+        switch (inclusion(config, type)) {
+            case ALWAYS:
+            case USE_DEFAULTS:
+            case NON_NULL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Whether null properties of a type are left out when writing it
+     */
+    public static boolean omitsNulls(MapperConfig<?> config, Class<?> type) {
+        return inclusion(config, type) == JsonInclude.Include.NON_NULL;
+    }
+
+    /**
+     * Jackson's bean serializer of a type, bypassing the generated codecs
+     */
+    public static JsonSerializer<Object> beanSerializer(SerializerProvider provider, Class<?> type)
+            throws JsonMappingException {
+        JsonSerializer<Object> serializer = BeanSerializerFactory.instance.createSerializer(
+                provider, provider.constructType(type));
+        if (serializer instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) serializer).resolve(provider);
+        }
+        return serializer;
+    }
+
+    /**
+     * Jackson's bean deserializer of a type, bypassing the generated codecs
+     */
+    public static JsonDeserializer<Object> beanDeserializer(DeserializationContext ctxt, Class<?> type)
+            throws JsonMappingException {
+        JavaType javaType = ctxt.constructType(type);
+        JsonDeserializer<Object> deserializer = BeanDeserializerFactory.instance.createBeanDeserializer(
+                ctxt, javaType, ctxt.getConfig().introspect(javaType));
+        if (deserializer instanceof ResolvableDeserializer) {
+            ((ResolvableDeserializer) deserializer).resolve(ctxt);
+        }
+        return deserializer;
+    }
+
+    private static JsonInclude.Include inclusion(MapperConfig<?> config, Class<?> type) {
+        JsonInclude.Value inclusion = config.getDefaultPropertyInclusion(type);
+        return inclusion != null ? inclusion.getValueInclusion() : JsonInclude.Include.ALWAYS;
+    }
+}
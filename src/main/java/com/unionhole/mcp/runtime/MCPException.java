@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.unionhole.mcp.vo.MCPResponse;
+
+/**
+ * Exception raised by the facade runtime (rate limiting, circuit breaking, ...)
+ * before or instead of calling the service. Generated facades rethrow it as is,
+ * so the code reaches the caller unchanged.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class MCPException extends RuntimeException {
+    public static final String BAD_REQUEST = "400";
+    public static final String TOO_MANY_REQUESTS = "429";
+    private static final long serialVersionUID = 1L;
+
+    private final String code;
+
+    public MCPException(String message, String code) {
+        super(message);
+        this.code = code;
+    }
+
+    public MCPException(String message, String code, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public MCPResponse toResponse() {
+        return MCPResponse.error(getMessage(), code);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.unionhole.mcp.vo.Page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Cursor based paging of collection results. A cursor is an opaque token
+ * holding the offset of the next page and the tool it was issued for, so a
+ * cursor of one tool is rejected by another.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class Pages {
+    private static final String VERSION = "1";
+
+    private Pages() {
+    }
+
+    /**
+     * Page through a service that offers a paged overload. One extra element is
+     * requested to find out whether another page follows.
+     */
+    public static <T> Page<T> fetch(String tool, String cursor, int pageSize, PageQuery<T> query) throws Exception {
+        int offset = decode(tool, cursor);
+        Collection<T> rows = query.fetch(offset, pageSize < Integer.MAX_VALUE ? pageSize + 1 : pageSize);
+        List<T> items = new ArrayList<>(Math.min(pageSize, rows == null ? 0 : rows.size()));
+        boolean more = false;
+        if (rows != null) {
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext() && items.size() < pageSize) {
+                items.add(it.next());
+            }
+            more = it.hasNext();
+        }
+        // 下一页的偏移量超出 int 范围时不再翻页
+        long next = (long) offset + pageSize;
+        return new Page<>(items, more && next <= Integer.MAX_VALUE ? encode(tool, (int) next) : null);
+    }
+
+    /**
+     * Cut one page out of a fully materialized result. The page is copied so
+     * that the full collection can be collected before serialization.
+     */
+    public static <T> Page<T> slice(String tool, String cursor, int pageSize, Collection<T> all) {
+        int offset = decode(tool, cursor);
+        if (all == null || offset >= all.size()) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+        int end = (int) Math.min((long) offset + pageSize, all.size());
+        List<T> items;
+        if (all instanceof List) {
+            items = new ArrayList<>(((List<T>) all).subList(offset, end));
+        } else {
+            items = new ArrayList<>(end - offset);
+            Iterator<T> it = all.iterator();
+            for (int i = 0; i < end; i++) {
+                T item = it.next();
+                if (i >= offset) {
+                    items.add(item);
+                }
+            }
+        }
+        return new Page<>(items, end < all.size() ? encode(tool, end) : null);
+    }
+
+    /**
+     * Issue the cursor of the page starting at the given offset
+     */
+    public static String encode(String tool, int offset) {
+        String token = VERSION + ":" + offset + ":" + Integer.toHexString(tool.hashCode());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Offset encoded in a cursor, 0 for a null or empty cursor (first page)
+     */
+    public static int decode(String tool, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = token.split(":");
+            if (parts.length == 3 && VERSION.equals(parts[0])
+                    && Integer.toHexString(tool.hashCode()).equals(parts[2])) {
+                int offset = Integer.parseInt(parts[1]);
+                if (offset >= 0) {
+                    return offset;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // 非法的 Base64 或数字，按无效游标处理
+        }
+        throw new MCPException("Invalid cursor for tool " + tool, MCPException.BAD_REQUEST);
+    }
+}
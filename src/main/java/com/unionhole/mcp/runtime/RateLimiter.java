@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limit of one tool. Without a key all callers share one bucket; with a
+ * key (e.g. a session or tenant parameter) each key value gets its own bucket.
+ * At most {@code maxKeys} keyed buckets are kept: a new key drops the least
+ * recently used bucket in constant time, which is normally an idle one.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class RateLimiter {
+    private static final int DEFAULT_MAX_KEYS = 10_000;
+
+    private final String name;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final TokenBucket shared;
+    // 按访问顺序排列，最久未使用的桶在最前面；只在查找和插入时加锁，取令牌不加锁
+    private final Map<Object, TokenBucket> keyed = new LinkedHashMap<>(16, 0.75f, true);
+
+    public RateLimiter(String name, double permitsPerSecond, int burst) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst > 0 ? burst : (int) Math.max(1, Math.ceil(permitsPerSecond));
+        this.shared = new TokenBucket(permitsPerSecond, this.burst);
+    }
+
+    /**
+     * Take a permit from the shared bucket, failing fast when none is left
+     */
+    public void acquire() {
+        if (Warmup.isRunning()) {
+            return;
+        }
+        if (!shared.tryAcquire()) {
+            throw rejected();
+        }
+    }
+
+    /**
+     * Take a permit from the bucket of the given key, a null key uses the shared bucket
+     */
+    public void acquire(Object key) {
+        if (key == null || Warmup.isRunning()) {
+            acquire();
+            return;
+        }
+        TokenBucket bucket;
+        synchronized (keyed) {
+            bucket = keyed.get(key);
+            if (bucket == null) {
+                bucket = new TokenBucket(permitsPerSecond, burst);
+                keyed.put(key, bucket);
+                if (keyed.size() > DEFAULT_MAX_KEYS) {
+                    Iterator<TokenBucket> eldest = keyed.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        if (!bucket.tryAcquire()) {
+            throw rejected();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private MCPException rejected() {
+        return new MCPException("Rate limit exceeded for tool " + name, MCPException.TOO_MANY_REQUESTS);
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent cache of serialized tool results. Results are appended as records
+ * to fixed-size memory-mapped segment files, so cached values live off-heap
+ * and survive restarts: a new process reopens the directory and rebuilds the
+ * key index by scanning the segments. When the size limit is reached the
+ * oldest segment is compacted, i.e. its live records are copied forward and
+ * the file is deleted.
+ *
+ * <p>Record layout: magic (written last as commit marker), key length, value
+ * length, expiry time in epoch millis, UTF-8 key, JSON value.
+ *
+ * <p>A hit is returned as a {@link RawValue} over the mapped record, the
+ * JSON is only copied when it is written out or read as text.
+ *
+ * <p>Each application gets its own directory, {@code mcp.cache.namespace}
+ * below {@code mcp.cache.dir}; the namespace defaults to the launched jar or
+ * main class. Keys start with {@code mcp.cache.version}, which defaults to
+ * the build time of that jar or class, so a new release does not read the
+ * results of the previous one.
+ *
+ * <p>Settings: {@code mcp.cache.dir} (default {@code java.io.tmpdir/mcp-cache}),
+ * {@code mcp.cache.namespace}, {@code mcp.cache.version},
+ * {@code mcp.cache.maxBytes} (default 256 MB), {@code mcp.cache.segmentBytes}
+ * (default 32 MB) and {@code mcp.cache.enabled} (default true). Only one
+ * process can open a directory at a time, others run without the cache.
+ *
+ * <p>Cached results may hold private data: the directory is created as
+ * {@code rwx------} and its files as {@code rw-------}, and a directory
+ * owned by another user is refused.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class ResultCache {
+    private static final Logger logger = Logger.getLogger(ResultCache.class.getName());
+    private static final int MAGIC = 0x4D435043;
+    private static final int HEADER_BYTES = 20;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path dir;
+    private final long maxBytes;
+    private final int segmentBytes;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final Map<String, Long> index = new ConcurrentHashMap<>();
+    private final Map<Integer, Segment> segmentsById = new ConcurrentHashMap<>();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private Segment active;
+
+    public ResultCache(Path dir, long maxBytes, int segmentBytes) throws IOException {
+        this.dir = dir;
+        // 至少保留两个段，压缩时才有可写入的新段
+        this.segmentBytes = (int) Math.max(HEADER_BYTES, Math.min(segmentBytes, maxBytes / 2));
+        this.maxBytes = maxBytes;
+        createPrivateDirectory(dir);
+        this.lockChannel = FileChannel.open(dir.resolve(".lock"), Set.of(StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE), privateAttributes(dir, "rw-------"));
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            acquired = null;
+        }
+        this.lock = acquired;
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Cache directory " + dir + " is used by another process");
+        }
+        reopen();
+    }
+
+    /**
+     * The process-wide cache, null if disabled or the directory cannot be opened
+     */
+    public static ResultCache shared() {
+        return Holder.shared;
+    }
+
+    /**
+     * Return the cached result of a tool call or run the call and cache its JSON.
+     * The key is the release version, the tool name and the JSON of the
+     * arguments; results are returned as raw JSON, so neither a hit nor a miss
+     * serializes twice.
+     */
+    public static Object cached(String tool, Object[] args, long ttlSeconds, ServiceCall<?> call) throws Exception {
+        ResultCache cache = shared();
+        // 预热使用合成参数，结果不写入缓存；只有预取声明的示例参数时才使用缓存
+        if (cache == null || ttlSeconds <= 0 || (Warmup.isRunning() && !Warmup.isPrefetching())) {
+            return call.call();
+        }
+        String key;
+        try {
+            key = key(tool, args);
+        } catch (JsonProcessingException e) {
+            // 参数无法序列化时不缓存
+            return call.call();
+        }
+        RawValue hit = cache.get(key);
+        if (hit != null) {
+            return hit;
+        }
+        byte[] json = JsonCodecs.mapper().writeValueAsBytes(call.call());
+        cache.put(key, json, System.currentTimeMillis() + ttlSeconds * 1000L);
+        return new RawValue(new String(json, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Key of a tool call, e.g. to {@link #invalidate(String)} it
+     */
+    public static String key(String tool, Object[] args) throws JsonProcessingException {
+        return Holder.version + '\n' + tool + '\n' + JsonCodecs.mapper().writeValueAsString(args);
+    }
+
+    /**
+     * The cached JSON of a key, null if absent or expired
+     */
+    public RawValue get(String key) {
+        Long location = index.get(key);
+        Segment segment = location != null ? segmentsById.get((int) (location >>> 32)) : null;
+        if (segment == null) {
+            misses.increment();
+            return null;
+        }
+        int offset = (int) (long) location;
+        MappedByteBuffer buffer = segment.buffer;
+        if (buffer.getLong(offset + 12) <= System.currentTimeMillis()) {
+            index.remove(key, location);
+            misses.increment();
+            return null;
+        }
+        // 记录不会被覆盖，段删除后映射仍然有效，可以直接引用
+        int start = offset + HEADER_BYTES + buffer.getInt(offset + 4);
+        ByteBuffer value = buffer.duplicate();
+        value.limit(start + buffer.getInt(offset + 8)).position(start);
+        hits.increment();
+        return new RawValue(new MappedJson(value.slice()));
+    }
+
+    /**
+     * Append a value, values larger than a segment are not cached
+     */
+    public synchronized void put(String key, byte[] value, long expiresAt) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int size = HEADER_BYTES + keyBytes.length + value.length;
+        if (size > segmentBytes) {
+            return;
+        }
+        if (active.position + size > segmentBytes) {
+            roll();
+        }
+        append(key, keyBytes, value, expiresAt);
+    }
+
+    /**
+     * Drop a key. A tombstone record is appended so that the key stays dropped
+     * when the cache is reopened.
+     */
+    public synchronized void invalidate(String key) throws IOException {
+        if (index.containsKey(key)) {
+            put(key, new byte[0], 0L);
+            index.remove(key);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getEntries() {
+        return index.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        lock.release();
+        lockChannel.close();
+    }
+
+    /**
+     * Create the directory only its owner can access, or check that an existing
+     * one is owned by the user running this process and restrict it
+     */
+    private static void createPrivateDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            Files.createDirectories(dir, privateAttributes(dir, "rwx------"));
+        }
+        UserPrincipal user = dir.getFileSystem().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!Files.getOwner(dir).equals(user)) {
+            throw new IOException("Cache directory " + dir + " is not owned by " + user.getName());
+        }
+        if (isPosix(dir)) {
+            // 其它版本创建的目录可能对同组和其他用户开放
+            Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rwx------");
+            if (!Files.getPosixFilePermissions(dir).equals(permissions)) {
+                Files.setPosixFilePermissions(dir, permissions);
+            }
+        }
+    }
+
+    private static FileAttribute<?>[] privateAttributes(Path path, String permissions) {
+        return isPosix(path)
+                ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions))}
+                : new FileAttribute<?>[0];
+    }
+
+    private static boolean isPosix(Path path) {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    private void append(String key, byte[] keyBytes, byte[] value, long expiresAt) {
+        int offset = active.position;
+        MappedByteBuffer buffer = active.buffer;
+        buffer.putInt(offset + 4, keyBytes.length);
+        buffer.putInt(offset + 8, value.length);
+        buffer.putLong(offset + 12, expiresAt);
+        buffer.put(offset + HEADER_BYTES, keyBytes);
+        buffer.put(offset + HEADER_BYTES + keyBytes.length, value);
+        // 最后写入魔数，进程中途退出时不完整的记录在重新打开时被忽略
+        buffer.putInt(offset, MAGIC);
+        active.position = offset + HEADER_BYTES + keyBytes.length + value.length;
+        index.put(key, ((long) active.id << 32) | offset);
+    }
+
+    private void roll() throws IOException {
+        active = openSegment(active.id + 1);
+        while ((long) segments.size() * segmentBytes > maxBytes && segments.size() > 1) {
+            compact(segments.peekFirst());
+        }
+    }
+
+    /**
+     * Copy the live records of a segment into the active one and delete it.
+     * Records that no longer fit are evicted.
+     */
+    private void compact(Segment segment) throws IOException {
+        long now = System.currentTimeMillis();
+        MappedByteBuffer buffer = segment.buffer;
+        for (int offset = 0; offset < segment.position; ) {
+            int keyLength = buffer.getInt(offset + 4);
+            int valueLength = buffer.getInt(offset + 8);
+            long expiresAt = buffer.getLong(offset + 12);
+            int size = HEADER_BYTES + keyLength + valueLength;
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(offset + HEADER_BYTES, keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+            Long location = ((long) segment.id << 32) | offset;
+            if (location.equals(index.get(key))) {
+                if (expiresAt > now && active.position + size <= segmentBytes) {
+                    byte[] value = new byte[valueLength];
+                    buffer.get(offset + HEADER_BYTES + keyLength, value);
+                    append(key, keyBytes, value, expiresAt);
+                } else {
+                    index.remove(key, location);
+                }
+            }
+            offset += size;
+        }
+        segments.remove(segment);
+        segmentsById.remove(segment.id);
+        segment.channel.close();
+        // 已映射的内存在文件删除后仍然有效，并发读取不受影响
+        Files.deleteIfExists(segment.path);
+    }
+
+    private void reopen() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // 忽略不是由缓存创建的文件
+                }
+            }
+        }
+        ids.sort(null);
+        long now = System.currentTimeMillis();
+        for (int id : ids) {
+            active = openSegment(id);
+            MappedByteBuffer buffer = active.buffer;
+            int offset = 0;
+            while (offset + HEADER_BYTES <= segmentBytes && buffer.getInt(offset) == MAGIC) {
+                int keyLength = buffer.getInt(offset + 4);
+                int valueLength = buffer.getInt(offset + 8);
+                long size = (long) HEADER_BYTES + keyLength + valueLength;
+                if (keyLength < 0 || valueLength < 0 || offset + size > segmentBytes) {
+                    break;
+                }
+                byte[] keyBytes = new byte[keyLength];
+                buffer.get(offset + HEADER_BYTES, keyBytes);
+                String key = new String(keyBytes, StandardCharsets.UTF_8);
+                if (buffer.getLong(offset + 12) > now) {
+                    index.put(key, ((long) id << 32) | offset);
+                } else {
+                    index.remove(key);
+                }
+                offset += (int) size;
+            }
+            active.position = offset;
+        }
+        if (active == null) {
+            active = openSegment(0);
+        }
+        while ((long) segments.size() * segmentBytes > maxBytes && segments.size() > 1) {
+            compact(segments.peekFirst());
+        }
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Path path = dir.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+        FileChannel channel = FileChannel.open(path, Set.of(StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE), privateAttributes(path, "rw-------"));
+        Segment segment = new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        segments.addLast(segment);
+        segmentsById.put(id, segment);
+        return segment;
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position;
+
+        Segment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Holder {
+        static final String launched = System.getProperty("sun.java.command", "").split(" ", 2)[0];
+        static final String version = System.getProperty("mcp.cache.version", buildStamp());
+        static final ResultCache shared = open();
+
+        /**
+         * File name of the launched jar or the main class
+         */
+        private static String namespace() {
+            String name = launched.substring(Math.max(launched.lastIndexOf('/'), launched.lastIndexOf('\\')) + 1);
+            name = name.replaceAll("[^A-Za-z0-9._-]", "_");
+            return name.isEmpty() || name.startsWith(".") ? "default" : name;
+        }
+
+        /**
+         * Modification time of the launched jar or main class, empty if unknown
+         */
+        private static String buildStamp() {
+            try {
+                long modified = 0;
+                if (launched.endsWith(".jar") && Files.isRegularFile(Paths.get(launched))) {
+                    modified = Files.getLastModifiedTime(Paths.get(launched)).toMillis();
+                } else if (!launched.isEmpty()) {
+                    URL main = ClassLoader.getSystemResource(launched.replace('.', '/') + ".class");
+                    modified = main != null ? main.openConnection().getLastModified() : 0;
+                }
+                return modified > 0 ? Long.toHexString(modified) : "";
+            } catch (IOException | RuntimeException e) {
+                return "";
+            }
+        }
+
+        private static ResultCache open() {
+            if (!Boolean.parseBoolean(System.getProperty("mcp.cache.enabled", "true"))) {
+                return null;
+            }
+            Path dir = Paths.get(System.getProperty("mcp.cache.dir",
+                    Paths.get(System.getProperty("java.io.tmpdir"), "mcp-cache").toString()))
+                    .resolve(System.getProperty("mcp.cache.namespace", namespace()));
+            try {
+                return new ResultCache(dir, Long.getLong("mcp.cache.maxBytes", 256L << 20),
+                        Integer.getInteger("mcp.cache.segmentBytes", 32 << 20));
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Result cache disabled: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * JSON of a cache hit, read from the mapped segment when it is written
+     */
+    private static final class MappedJson implements SerializableString {
+        private final ByteBuffer bytes;
+        private SerializedString text;
+
+        MappedJson(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        private SerializedString text() {
+            if (text == null) {
+                text = new SerializedString(StandardCharsets.UTF_8.decode(bytes.duplicate()).toString());
+            }
+            return text;
+        }
+
+        @Override
+        public String getValue() {
+            return text().getValue();
+        }
+
+        @Override
+        public int charLength() {
+            return text().charLength();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return text().asQuotedChars();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            byte[] copy = new byte[bytes.remaining()];
+            bytes.duplicate().get(copy);
+            return copy;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return text().asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return text().appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return text().appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            int length = bytes.remaining();
+            if (offset + length > buffer.length) {
+                return -1;
+            }
+            bytes.duplicate().get(buffer, offset, length);
+            return length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return text().appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return text().writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            return Channels.newChannel(out).write(bytes.duplicate());
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+            return text().putQuotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) throws IOException {
+            int length = bytes.remaining();
+            if (length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(bytes.duplicate());
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return getValue();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.unionhole.mcp.vo.SpilledRange;
+import com.unionhole.mcp.vo.SpilledResult;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps oversized tool results out of the heap. A result is serialized once;
+ * if it stays under the inline limit the bytes are returned as a raw JSON value
+ * (so the transport does not serialize it again), otherwise the serialization
+ * continues into a temp file which is memory-mapped and handed out by range.
+ *
+ * <p>Settings: {@code mcp.spill.dir} (default {@code java.io.tmpdir/mcp-spill})
+ * and {@code mcp.spill.ttl.seconds} (default 600).
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class SpillStore {
+    public static final String URI_PREFIX = "mcp-spill://";
+    public static final String MIME_TYPE = "application/json";
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final long ttlMillis = Long.getLong("mcp.spill.ttl.seconds", 600L) * 1000L;
+    private static final Path spillDir = Paths.get(System.getProperty("mcp.spill.dir",
+            Paths.get(System.getProperty("java.io.tmpdir"), "mcp-spill").toString()));
+
+    static {
+        // 退出时删除尚未过期的文件；不对每个文件调用 deleteOnExit，避免其集合在长期运行的服务中无限增长
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Entry entry : entries.values()) {
+                entry.delete();
+            }
+        }, "mcp-spill-cleanup"));
+    }
+
+    private SpillStore() {
+    }
+
+    /**
+     * Serialize the result and either return it inline or spill it to a mapped file.
+     *
+     * @param tool           tool name, used as file name prefix
+     * @param result         service result
+     * @param maxInlineBytes inline limit in bytes
+     * @return a {@link RawValue} holding the JSON, or a {@link SpilledResult}
+     */
+    public static Object inlineOrSpill(String tool, Object result, long maxInlineBytes) throws IOException {
+        if (result == null || maxInlineBytes <= 0) {
+            return result;
+        }
+        evictExpired();
+        String id = tool + "-" + UUID.randomUUID();
+        SpillingOutputStream out = new SpillingOutputStream(id, (int) Math.min(maxInlineBytes, Integer.MAX_VALUE - 8));
+        boolean stored = false;
+        try {
+            // 每次从共享 mapper 获取 writer，以便使用之后注册的编解码模块
+            ObjectWriter writer = JsonCodecs.mapper().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writer.writeValue(out, result);
+            if (!out.spilled()) {
+                return new RawValue(new String(out.buffer, 0, out.count, StandardCharsets.UTF_8));
+            }
+            out.flush();
+            Entry entry = out.map();
+            entries.put(id, entry);
+            stored = true;
+            return new SpilledResult(URI_PREFIX + id, entry.size, MIME_TYPE, entry.expiresAt);
+        } finally {
+            out.close();
+            // 序列化中途失败时删除已经写了一部分的文件
+            if (!stored && out.file != null) {
+                Files.deleteIfExists(out.file);
+            }
+        }
+    }
+
+    /**
+     * Read a range of a spilled result as text. The range never splits a
+     * multi-byte UTF-8 sequence: a start inside a character moves to the next
+     * character, an end inside one moves back to its start, and a range too
+     * short for one character is extended to cover it. The returned range
+     * holds the offset and length actually read.
+     */
+    public static SpilledRange read(String uri, long offset, int length) {
+        Entry entry = lookup(uri);
+        slice(entry, offset, length);
+        long start = offset;
+        while (start < entry.size && isContinuation(entry, start)) {
+            start++;
+        }
+        long end = Math.max(start, Math.min(entry.size, offset + length));
+        long back = end;
+        while (back > start && back < entry.size && isContinuation(entry, back)) {
+            back--;
+        }
+        if (back > start) {
+            end = back;
+        } else {
+            // 范围容不下一个完整字符时延伸到该字符结尾，顺序读取总能前进
+            while (end < entry.size && isContinuation(entry, end)) {
+                end++;
+            }
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        entry.buffer.get((int) start, bytes);
+        return new SpilledRange(uri, start, bytes.length, entry.size, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Zero-copy, read-only view of a range of a spilled result
+     */
+    public static ByteBuffer slice(String uri, long offset, int length) {
+        return slice(lookup(uri), offset, length);
+    }
+
+    /**
+     * Drop a spilled result before its TTL expires
+     */
+    public static boolean release(String uri) {
+        Entry entry = uri.startsWith(URI_PREFIX) ? entries.remove(uri.substring(URI_PREFIX.length())) : null;
+        if (entry != null) {
+            entry.delete();
+            return true;
+        }
+        return false;
+    }
+
+    static void evictExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.expiresAt <= now) {
+                it.remove();
+                entry.delete();
+            }
+        }
+    }
+
+    private static Entry lookup(String uri) {
+        Entry entry = uri != null && uri.startsWith(URI_PREFIX)
+                ? entries.get(uri.substring(URI_PREFIX.length()))
+                : null;
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis()) {
+            throw new IllegalArgumentException("Unknown or expired spilled result: " + uri);
+        }
+        return entry;
+    }
+
+    private static boolean isContinuation(Entry entry, long index) {
+        return (entry.buffer.get((int) index) & 0xC0) == 0x80;
+    }
+
+    private static ByteBuffer slice(Entry entry, long offset, int length) {
+        if (offset < 0 || offset > entry.size || length < 0) {
+            throw new IllegalArgumentException("Invalid range " + offset + "+" + length + " of " + entry.size);
+        }
+        int start = (int) offset;
+        int len = (int) Math.min(length, entry.size - offset);
+        return entry.buffer.slice(start, len).asReadOnlyBuffer();
+    }
+
+    private static final class Entry {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final long size;
+        private final long expiresAt;
+
+        private Entry(Path file, MappedByteBuffer buffer, long size) {
+            this.file = file;
+            this.buffer = buffer;
+            this.size = size;
+            this.expiresAt = System.currentTimeMillis() + ttlMillis;
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // 文件仍被映射时某些平台上删除会失败，留在 mcp.spill.dir 中由运维清理
+            }
+        }
+    }
+
+    /**
+     * Buffers up to the inline limit in memory and switches to a temp file once
+     * the limit is exceeded, so the payload is written exactly once.
+     */
+    private static final class SpillingOutputStream extends OutputStream {
+        private final String id;
+        private final int limit;
+        private byte[] buffer = new byte[256];
+        private int count;
+        private Path file;
+        private FileChannel channel;
+        private OutputStream fileOut;
+
+        private SpillingOutputStream(String id, int limit) {
+            this.id = id;
+            this.limit = limit;
+        }
+
+        private boolean spilled() {
+            return fileOut != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && count + len > limit) {
+                spill();
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+                return;
+            }
+            if (count + len > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(buffer.length * 2, count + len)));
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        private void spill() throws IOException {
+            Files.createDirectories(spillDir);
+            file = Files.createTempFile(spillDir, id, ".json");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fileOut = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            fileOut.write(buffer, 0, count);
+            buffer = null;
+        }
+
+        private Entry map() throws IOException {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Spilled result too large: " + size + " bytes");
+            }
+            return new Entry(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (fileOut != null) {
+                fileOut.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                // 映射建立后关闭通道不影响 MappedByteBuffer
+                fileOut.close();
+            }
+        }
+    }
+}
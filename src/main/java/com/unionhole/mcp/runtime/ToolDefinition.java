@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+/**
+ * A tool registered by a generated {@code <Facade>Tools} class: its name,
+ * description, JSON schema of the arguments, the facade class that owns it
+ * and the handler dispatching to the facade
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class ToolDefinition {
+    private final String name;
+    private final String description;
+    private final String inputSchema;
+    private final Class<?> owner;
+    private final ToolHandler handler;
+
+    public ToolDefinition(String name, String description, String inputSchema, ToolHandler handler) {
+        this(name, description, inputSchema, null, handler);
+    }
+
+    /**
+     * @param owner facade class registering the tool, it may register the tool again
+     */
+    public ToolDefinition(String name, String description, String inputSchema, Class<?> owner,
+                          ToolHandler handler) {
+        this.name = name;
+        this.description = description;
+        this.inputSchema = inputSchema;
+        this.owner = owner;
+        this.handler = handler;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * JSON schema of the arguments object
+     */
+    public String getInputSchema() {
+        return inputSchema;
+    }
+
+    /**
+     * Facade class registering the tool, null if unknown
+     */
+    public Class<?> getOwner() {
+        return owner;
+    }
+
+    public ToolHandler getHandler() {
+        return handler;
+    }
+}
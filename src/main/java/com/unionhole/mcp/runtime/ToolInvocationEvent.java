@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event emitted around the service call of a recorded tool.
+ * Duration and thread are captured by JFR itself.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+@Name("com.unionhole.mcp.ToolInvocation")
+@Label("MCP Tool Invocation")
+@Category("MCP")
+@Description("Service call of a generated MCP facade method")
+@StackTrace(false)
+public class ToolInvocationEvent extends jdk.jfr.Event {
+    @Label("Tool")
+    String tool;
+
+    @Label("Argument Size")
+    @DataAmount
+    long argumentBytes;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Error Message")
+    String message;
+}
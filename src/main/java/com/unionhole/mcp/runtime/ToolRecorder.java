@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.unionhole.mcp.vo.ToolCallRecord;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records tool calls as {@link ToolInvocationEvent}s and in a fixed-size ring
+ * of the most recent calls that can be dumped on demand. The ring is off
+ * unless {@code mcp.recorder.capacity} is set; it serializes the arguments of
+ * every call to record their size. When the JFR event is disabled and the ring
+ * is off the call runs without any measurement.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class ToolRecorder {
+    private static final int capacity = Integer.getInteger("mcp.recorder.capacity", 0);
+    private static final AtomicReferenceArray<ToolCallRecord> ring =
+            new AtomicReferenceArray<>(Math.max(capacity, 1));
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private ToolRecorder() {
+    }
+
+    public static <T> T record(String tool, Object[] args, ServiceCall<T> call) throws Exception {
+        if (Warmup.isRunning()) {
+            return call.call();
+        }
+        ToolInvocationEvent event = new ToolInvocationEvent();
+        if (!event.isEnabled() && capacity <= 0) {
+            return call.call();
+        }
+        String outcome = "success";
+        String message = null;
+        long start = System.nanoTime();
+        event.begin();
+        try {
+            return call.call();
+        } catch (Throwable e) {
+            // Error 同样记录为失败
+            outcome = outcome(e);
+            message = e.getMessage();
+            throw e;
+        } finally {
+            finish(event, tool, args, start, outcome, message);
+        }
+    }
+
+    /**
+     * Record an asynchronous call when its future completes
+     */
+    public static <T> CompletableFuture<T> recordAsync(String tool, Object[] args, AsyncServiceCall<T> call) {
+        if (Warmup.isRunning()) {
+            return AsyncCalls.start(call);
+        }
+        ToolInvocationEvent event = new ToolInvocationEvent();
+        if (!event.isEnabled() && capacity <= 0) {
+            return AsyncCalls.start(call);
+        }
+        long start = System.nanoTime();
+        event.begin();
+        CompletableFuture<T> result = AsyncCalls.start(call);
+        result.whenComplete((value, error) -> {
+            Throwable cause = AsyncCalls.unwrap(error);
+            finish(event, tool, args, start, cause == null ? "success" : outcome(cause),
+                    cause == null ? null : cause.getMessage());
+        });
+        return result;
+    }
+
+    static String outcome(Throwable e) {
+        // 异步调用的失败已被包装为 RuntimeException，记录原始异常类型
+        Throwable cause = e.getClass() == RuntimeException.class && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof MCPException
+                ? "rejected:" + ((MCPException) cause).getCode()
+                : cause.getClass().getName();
+    }
+
+    private static void finish(ToolInvocationEvent event, String tool, Object[] args, long start,
+                               String outcome, String message) {
+        event.end();
+        long duration = System.nanoTime() - start;
+        long argumentBytes = -1;
+        if (event.shouldCommit()) {
+            argumentBytes = argumentBytes(args);
+            event.tool = tool;
+            event.argumentBytes = argumentBytes;
+            event.outcome = outcome;
+            event.message = message;
+            event.commit();
+        }
+        if (capacity > 0) {
+            if (argumentBytes < 0) {
+                argumentBytes = argumentBytes(args);
+            }
+            ring.set((int) (sequence.getAndIncrement() % capacity), new ToolCallRecord(
+                    System.currentTimeMillis(), tool, argumentBytes, duration, outcome,
+                    Thread.currentThread().getName()));
+        }
+    }
+
+    /**
+     * The recorded calls, oldest first
+     */
+    public static List<ToolCallRecord> snapshot() {
+        List<ToolCallRecord> records = new ArrayList<>();
+        if (capacity <= 0) {
+            return records;
+        }
+        long end = sequence.get();
+        for (long i = Math.max(0, end - capacity); i < end; i++) {
+            ToolCallRecord record = ring.get((int) (i % capacity));
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Write the recorded calls as a JSON array
+     */
+    public static void dump(Writer writer) throws IOException {
+        JsonCodecs.mapper().writerWithDefaultPrettyPrinter().writeValue(writer, snapshot());
+    }
+
+    /**
+     * Serialized size of the arguments, computed only when a call is recorded
+     */
+    private static long argumentBytes(Object[] args) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            JsonCodecs.mapper().writeValue(counter, args);
+        } catch (IOException e) {
+            return -1;
+        }
+        return counter.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
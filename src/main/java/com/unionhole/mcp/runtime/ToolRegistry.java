@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.unionhole.mcp.vo.MCPRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Process-wide registry of the tools of all generated facades, filled by the
+ * generated {@code <Facade>Tools} classes. Calls dispatched through the
+ * registry go through the typed facade methods, i.e. with all the guards
+ * (rate limiting, circuit breaking, ...) of a direct tool call.
+ *
+ * <p>Tool names are unique: registering a name already registered by another
+ * facade fails, only the owning facade may register it again (e.g. when an
+ * application context is refreshed).
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class ToolRegistry {
+    public static final String NOT_FOUND = "404";
+
+    // 按名称排序，工具列表的顺序与注册顺序无关
+    private static final Map<String, ToolDefinition> tools = new ConcurrentSkipListMap<>();
+
+    private ToolRegistry() {
+    }
+
+    /**
+     * @throws IllegalStateException if another facade already registered a tool of the same name
+     */
+    public static void register(ToolDefinition tool) {
+        tools.compute(tool.getName(), (name, existing) -> {
+            // 同名工具不静默覆盖，只允许同一个 Facade 重新注册
+            if (existing != null && (existing.getOwner() == null || existing.getOwner() != tool.getOwner())) {
+                throw new IllegalStateException("Tool " + name + " of " + ownerName(tool)
+                        + " is already registered by " + ownerName(existing));
+            }
+            return tool;
+        });
+    }
+
+    public static ToolDefinition get(String name) {
+        return tools.get(name);
+    }
+
+    public static Collection<ToolDefinition> all() {
+        return Collections.unmodifiableCollection(new ArrayList<>(tools.values()));
+    }
+
+    private static String ownerName(ToolDefinition tool) {
+        return tool.getOwner() != null ? tool.getOwner().getName() : "an unknown owner";
+    }
+
+    /**
+     * Call a tool by name with its JSON arguments
+     */
+    public static Object call(String name, Map<String, Object> arguments) throws Exception {
+        ToolDefinition tool = tools.get(name);
+        if (tool == null) {
+            throw new MCPException("Unknown tool " + name, NOT_FOUND);
+        }
+        return tool.getHandler().call(new MCPRequest(arguments != null ? arguments : Collections.emptyMap()));
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Samples tool calls to a gzip-compressed file for replay. Like the
+ * {@link AuditJournal} a call only queues its record, a background writer
+ * serializes the arguments and appends the records in batches.
+ *
+ * <p>Each record is one JSON line: {@code at} (start of the call in
+ * microseconds since the capture began), {@code tool} (the registered tool
+ * name), {@code args} (the arguments by parameter name, as a client sends
+ * them), {@code micros} and {@code outcome}. Records are written in completion
+ * order, a replay sorts them by {@code at}. Warm-up calls are not captured.
+ *
+ * <p>Unlike the audit journal the file holds the raw arguments, which may
+ * contain personal or confidential data: it is created readable and writable
+ * by its owner only (where the file system supports POSIX permissions), and
+ * should be kept and shared like the data itself.
+ *
+ * <p>Settings: {@code mcp.capture.file} (default
+ * {@code java.io.tmpdir/mcp-capture-<pid>.jsonl.gz}, an existing file is
+ * replaced), {@code mcp.capture.sampleRate} (default 1.0),
+ * {@code mcp.capture.maxRecords} (default 1000000, sampling stops after it),
+ * {@code mcp.capture.queueCapacity} (default 65536), {@code mcp.capture.flushMillis}
+ * (default 200) and {@code mcp.capture.enabled} (default true).
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class TrafficCapture implements Closeable {
+    private static final Logger logger = Logger.getLogger(TrafficCapture.class.getName());
+    private static final int BATCH_SIZE = 512;
+
+    private final Path file;
+    private final double sampleRate;
+    private final long maxRecords;
+    private final int queueCapacity;
+    private final long flushNanos;
+    private final long origin = System.nanoTime();
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sampled = new AtomicLong();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final OutputStream out;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public TrafficCapture(Path file, double sampleRate, long maxRecords, int queueCapacity, long flushMillis)
+            throws IOException {
+        this.file = file;
+        this.sampleRate = sampleRate;
+        this.maxRecords = maxRecords;
+        this.queueCapacity = queueCapacity;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushMillis));
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // 同步刷新，进程异常退出时已刷新的批次仍可读取
+        this.out = new BufferedOutputStream(new GZIPOutputStream(create(file), 65536, true), 65536);
+        writer = new Thread(this::drain, "mcp-capture");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Replace the file by a new one only its owner can read, it holds raw arguments
+     */
+    private static OutputStream create(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+        }
+        return Files.newOutputStream(file, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * The process-wide capture, null if disabled or the file cannot be created
+     */
+    public static TrafficCapture shared() {
+        return Holder.shared;
+    }
+
+    public static <T> T capture(String tool, String[] names, Object[] args, ServiceCall<T> call) throws Exception {
+        TrafficCapture capture = shared();
+        if (capture == null || Warmup.isRunning() || !capture.sample()) {
+            return call.call();
+        }
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return call.call();
+        } catch (Exception e) {
+            outcome = ToolRecorder.outcome(e);
+            throw e;
+        } finally {
+            capture.append(tool, names, args, start, System.nanoTime() - start, outcome);
+        }
+    }
+
+    /**
+     * Capture an asynchronous call when its future completes
+     */
+    public static <T> CompletableFuture<T> captureAsync(String tool, String[] names, Object[] args,
+                                                        AsyncServiceCall<T> call) {
+        TrafficCapture capture = shared();
+        if (capture == null || Warmup.isRunning() || !capture.sample()) {
+            return AsyncCalls.start(call);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> result = AsyncCalls.start(call);
+        result.whenComplete((value, error) -> {
+            Throwable cause = AsyncCalls.unwrap(error);
+            capture.append(tool, names, args, start, System.nanoTime() - start,
+                    cause == null ? "success" : ToolRecorder.outcome(cause));
+        });
+        return result;
+    }
+
+    /**
+     * Whether to capture the next call, decided before it runs so unsampled
+     * calls are not timed
+     */
+    boolean sample() {
+        if (closed || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return false;
+        }
+        return maxRecords <= 0 || sampled.incrementAndGet() <= maxRecords;
+    }
+
+    /**
+     * Queue a record for the writer, false if the queue is full and the record was dropped
+     */
+    public boolean append(String tool, String[] names, Object[] args, long startNanos, long durationNanos,
+                          String outcome) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            // 不阻塞调用线程，队列满时丢弃并计数
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(new Entry(startNanos - origin, tool, names, args, durationNanos, outcome));
+        return true;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Write the queued records and finish the file
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            Entry entry;
+            while (batch.size() < BATCH_SIZE && (entry = queue.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                if (closed && queue.isEmpty()) {
+                    break;
+                }
+                LockSupport.parkNanos(this, flushNanos);
+                continue;
+            }
+            queued.addAndGet(-batch.size());
+            for (Entry queuedEntry : batch) {
+                try {
+                    out.write(encode(queuedEntry));
+                    written.increment();
+                } catch (IOException | RuntimeException e) {
+                    dropped.increment();
+                    logger.log(Level.WARNING, "Failed to capture call of " + queuedEntry.tool, e);
+                }
+            }
+            batch.clear();
+            try {
+                // 队列读空时才刷新，连续的批次共用一个压缩块
+                if (queue.isEmpty()) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to flush traffic capture", e);
+            }
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close traffic capture", e);
+        }
+    }
+
+    private byte[] encode(Entry entry) throws IOException {
+        ObjectNode node = JsonCodecs.mapper().createObjectNode();
+        node.put("at", TimeUnit.NANOSECONDS.toMicros(entry.offsetNanos));
+        node.put("tool", entry.tool);
+        ObjectNode args = node.putObject("args");
+        for (int i = 0; i < entry.names.length; i++) {
+            // 与客户端一样省略空参数
+            if (entry.args[i] != null) {
+                args.putPOJO(entry.names[i], entry.args[i]);
+            }
+        }
+        node.put("micros", TimeUnit.NANOSECONDS.toMicros(entry.durationNanos));
+        node.put("outcome", entry.outcome);
+        byte[] json = JsonCodecs.mapper().writeValueAsBytes(node);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    private static final class Entry {
+        final long offsetNanos;
+        final String tool;
+        final String[] names;
+        final Object[] args;
+        final long durationNanos;
+        final String outcome;
+
+        Entry(long offsetNanos, String tool, String[] names, Object[] args, long durationNanos, String outcome) {
+            this.offsetNanos = offsetNanos;
+            this.tool = tool;
+            this.names = names;
+            this.args = args;
+            this.durationNanos = durationNanos;
+            this.outcome = outcome;
+        }
+    }
+
+    private static final class Holder {
+        static final TrafficCapture shared = open();
+
+        private static TrafficCapture open() {
+            if (!Boolean.parseBoolean(System.getProperty("mcp.capture.enabled", "true"))) {
+                return null;
+            }
+            Path file = Paths.get(System.getProperty("mcp.capture.file", Paths.get(System.getProperty("java.io.tmpdir"),
+                    "mcp-capture-" + ProcessHandle.current().pid() + ".jsonl.gz").toString()));
+            try {
+                TrafficCapture capture = new TrafficCapture(file,
+                        Double.parseDouble(System.getProperty("mcp.capture.sampleRate", "1.0")),
+                        Long.getLong("mcp.capture.maxRecords", 1_000_000L),
+                        Integer.getInteger("mcp.capture.queueCapacity", 65536),
+                        Long.getLong("mcp.capture.flushMillis", 200L));
+                // 退出前写完队列中的记录并结束压缩流
+                Runtime.getRuntime().addShutdownHook(new Thread(capture::close, "mcp-capture-shutdown"));
+                return capture;
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Traffic capture disabled: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+}
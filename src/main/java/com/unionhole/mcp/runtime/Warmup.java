@@ -0,0 +1,191 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unionhole.mcp.vo.MCPRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pre-traffic warm-up of generated facades. For every tool the generated
+ * warm-up binds sample arguments through {@link MCPRequest} and serializes a
+ * result with the shared mapper, so class loading, codec construction and JIT
+ * compilation happen before the first real call. Only tools declared
+ * {@code readOnly} are actually dispatched, {@code mcp.warmup.dispatches}
+ * times per sample; the remaining iterations serialize the last result
+ * again. For the other tools a synthetic result is serialized instead.
+ *
+ * <p>Dispatched calls run with {@link #isRunning()} set: rate limiters,
+ * circuit breakers, admission, the result cache, the recorders, the audit
+ * journal and the traffic capture let them through without taking permits or
+ * recording them, so the warm-up does not drain limits, trip breakers or show
+ * up as traffic.
+ *
+ * <p>With {@code mcp.warmup.prefetch} the first call of every declared
+ * sample (not the synthetic arguments) stores its result in the
+ * {@link ResultCache}, so the keys of tools with a {@code cacheTtl} are
+ * cached before traffic arrives; a key already cached is not fetched again.
+ *
+ * <p>Settings: {@code mcp.warmup.enabled} (default true),
+ * {@code mcp.warmup.iterations} (default 200), {@code mcp.warmup.dispatches}
+ * (default 1) and {@code mcp.warmup.prefetch} (default false).
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class Warmup {
+    /**
+     * Returned by a binding that did not dispatch the call
+     */
+    public static final Object NOT_DISPATCHED = new Object();
+
+    private static final Logger logger = Logger.getLogger(Warmup.class.getName());
+    // 值表示本次调用是否预取缓存，未在预热中时为 null
+    private static final ThreadLocal<Boolean> running = new ThreadLocal<>();
+
+    private Warmup() {
+    }
+
+    @FunctionalInterface
+    public interface Dispatch {
+        Object call(MCPRequest request) throws Exception;
+    }
+
+    public static final class Step {
+        private final String tool;
+        private final String syntheticArgs;
+        private final String[] sampleArgs;
+        private final Dispatch dispatch;
+        private final String sampleResult;
+        private final TypeReference<?> resultType;
+
+        private Step(String tool, String syntheticArgs, String[] sampleArgs, Dispatch dispatch,
+                     String sampleResult, TypeReference<?> resultType) {
+            this.tool = tool;
+            this.syntheticArgs = syntheticArgs;
+            this.sampleArgs = sampleArgs;
+            this.dispatch = dispatch;
+            this.sampleResult = sampleResult;
+            this.resultType = resultType;
+        }
+    }
+
+    /**
+     * @param tool          tool name
+     * @param syntheticArgs JSON object with a synthetic value for every parameter
+     * @param sampleArgs    declared sample arguments (JSON objects), completed with the synthetic values
+     * @param dispatch      binds the arguments and calls the facade, or returns {@link #NOT_DISPATCHED}
+     * @param sampleResult  JSON of a synthetic result, serialized when the call is not dispatched; may be null
+     * @param resultType    type of the synthetic result; may be null
+     */
+    public static Step step(String tool, String syntheticArgs, String[] sampleArgs, Dispatch dispatch,
+                            String sampleResult, TypeReference<?> resultType) {
+        return new Step(tool, syntheticArgs, sampleArgs, dispatch, sampleResult, resultType);
+    }
+
+    /**
+     * Whether the current thread is dispatching a warm-up call
+     */
+    public static boolean isRunning() {
+        return running.get() != null;
+    }
+
+    /**
+     * Whether the warm-up call of the current thread prefetches its result into the cache
+     */
+    public static boolean isPrefetching() {
+        return Boolean.TRUE.equals(running.get());
+    }
+
+    public static void run(String service, List<Step> steps) {
+        if (!Boolean.parseBoolean(System.getProperty("mcp.warmup.enabled", "true"))) {
+            return;
+        }
+        int iterations = Integer.getInteger("mcp.warmup.iterations", 200);
+        int dispatches = Math.max(1, Integer.getInteger("mcp.warmup.dispatches", 1));
+        boolean prefetch = Boolean.getBoolean("mcp.warmup.prefetch");
+        ObjectMapper mapper = JsonCodecs.mapper();
+        long start = System.nanoTime();
+        for (Step step : steps) {
+            try {
+                TypeReference<Map<String, Object>> mapType = new TypeReference<Map<String, Object>>() {};
+                Map<String, Object> synthetic = mapper.readValue(step.syntheticArgs, mapType);
+                List<MCPRequest> requests = new ArrayList<>();
+                for (String json : step.sampleArgs) {
+                    Map<String, Object> args = mapper.readValue(json, mapType);
+                    synthetic.forEach(args::putIfAbsent);
+                    requests.add(new MCPRequest(args));
+                }
+                if (requests.isEmpty()) {
+                    requests.add(new MCPRequest(synthetic));
+                }
+                JavaType resultType = step.resultType != null
+                        ? mapper.getTypeFactory().constructType(step.resultType)
+                        : null;
+                Object sampleResult = null;
+                Object[] results = new Object[requests.size()];
+                boolean dispatched = false;
+                for (int i = 0; i < iterations; i++) {
+                    for (int r = 0; r < requests.size(); r++) {
+                        Object result;
+                        if (dispatched && i >= dispatches) {
+                            // 真正调用的工具不再访问后端服务，只重复序列化上次的结果
+                            result = results[r];
+                        } else {
+                            // 声明的示例参数在首次调用时预取到结果缓存
+                            running.set(prefetch && i == 0 && r < step.sampleArgs.length);
+                            try {
+                                result = step.dispatch.call(requests.get(r));
+                            } finally {
+                                running.remove();
+                            }
+                            if (result instanceof CompletionStage) {
+                                result = AsyncCalls.await(((CompletionStage<?>) result).toCompletableFuture());
+                            }
+                            if (result == NOT_DISPATCHED) {
+                                // 未实际调用的工具只预热参数绑定和序列化
+                                if (sampleResult == null && step.sampleResult != null && resultType != null) {
+                                    sampleResult = mapper.readValue(step.sampleResult, resultType);
+                                }
+                                result = sampleResult;
+                            } else {
+                                dispatched = true;
+                            }
+                            results[r] = result;
+                        }
+                        mapper.writeValueAsBytes(result);
+                    }
+                }
+            } catch (MCPException e) {
+                // 合成参数可能被服务拒绝，不影响已完成的预热
+                logger.fine("Warm-up of " + service + "." + step.tool + " stopped: " + e.getMessage());
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Warm-up of " + service + "." + step.tool + " failed", e);
+            }
+        }
+        logger.info("Warmed up " + steps.size() + " tools of " + service + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
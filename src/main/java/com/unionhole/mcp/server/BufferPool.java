@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of direct buffers for channel I/O. Channels read into and write from
+ * direct buffers without an extra copy through a temporary buffer, but direct
+ * buffers are expensive to allocate and free, so transports lease them here.
+ *
+ * <p>Settings: {@code mcp.codec.bufferSize} (default 64 KB) and
+ * {@code mcp.codec.maxPooled} (default 64) for the shared pool.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class BufferPool {
+    private static final BufferPool shared = new BufferPool(
+            Integer.getInteger("mcp.codec.bufferSize", 64 * 1024),
+            Integer.getInteger("mcp.codec.maxPooled", 64));
+
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> idle;
+
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    public static BufferPool shared() {
+        return shared;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * A cleared buffer of {@link #getBufferSize()} bytes
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = idle.poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Return a buffer, buffers of another size (e.g. grown for a large message)
+     * are left to the garbage collector
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer != null && buffer.isDirect() && buffer.capacity() == bufferSize) {
+            idle.offer(buffer);
+        }
+    }
+}
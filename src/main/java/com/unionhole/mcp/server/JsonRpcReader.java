@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.server;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads newline-delimited JSON-RPC messages from a channel. Bytes are read into
+ * a pooled direct buffer and scanned for the delimiter incrementally, i.e.
+ * every byte is looked at once however many reads a message takes. A complete
+ * frame is parsed by Jackson straight from the buffer, without decoding it
+ * into a String first. Messages larger than the buffer grow it, up to
+ * {@code mcp.codec.maxFrameBytes} (default 16 MB): a longer message is skipped
+ * up to its newline and reported as a parse error.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class JsonRpcReader implements Closeable {
+    private final ReadableByteChannel channel;
+    private final BufferPool pool;
+    private final ObjectMapper mapper;
+    private final int maxFrameBytes;
+    private ByteBuffer buffer;
+    private int start;
+    private int scan;
+    private int end;
+    private boolean eof;
+    private boolean oversized;
+
+    public JsonRpcReader(ReadableByteChannel channel, BufferPool pool, ObjectMapper mapper) {
+        this(channel, pool, mapper, Integer.getInteger("mcp.codec.maxFrameBytes", 16 * 1024 * 1024));
+    }
+
+    public JsonRpcReader(ReadableByteChannel channel, BufferPool pool, ObjectMapper mapper, int maxFrameBytes) {
+        this.channel = channel;
+        this.pool = pool;
+        this.mapper = mapper;
+        this.maxFrameBytes = maxFrameBytes;
+        this.buffer = pool.acquire();
+    }
+
+    /**
+     * The next message, null at the end of the stream
+     *
+     * @throws JsonParseException if a frame is malformed or too large, the
+     *                            reader continues with the next frame
+     */
+    public JsonNode read() throws IOException {
+        while (true) {
+            for (; scan < end; scan++) {
+                if (buffer.get(scan) == '\n') {
+                    int frameStart = start;
+                    int frameEnd = scan;
+                    start = ++scan;
+                    if (oversized) {
+                        oversized = false;
+                        throw tooLarge();
+                    }
+                    JsonNode message = parse(frameStart, frameEnd);
+                    if (message != null) {
+                        return message;
+                    }
+                }
+            }
+            if (eof) {
+                // 最后一条消息可以没有换行符；先移动偏移量，解析失败时下次读取返回 null
+                int frameStart = start;
+                start = scan = end;
+                if (oversized) {
+                    oversized = false;
+                    throw tooLarge();
+                }
+                return parse(frameStart, end);
+            }
+            if (end - start >= maxFrameBytes) {
+                // 超长的帧丢弃到下一个换行符，不再扩大缓冲区
+                oversized = true;
+                start = end;
+            }
+            fill();
+        }
+    }
+
+    private JsonParseException tooLarge() {
+        return new JsonParseException(null, "Message exceeds " + maxFrameBytes + " bytes");
+    }
+
+    private void fill() throws IOException {
+        if (start > 0) {
+            // 丢弃已处理的字节，未完成的帧移到缓冲区开头
+            buffer.limit(end).position(start);
+            buffer.compact();
+            end -= start;
+            scan -= start;
+            start = 0;
+        }
+        if (end == buffer.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min((long) buffer.capacity() * 2, maxFrameBytes));
+            buffer.limit(end).position(0);
+            grown.put(buffer);
+            pool.release(buffer);
+            buffer = grown;
+        }
+        buffer.limit(buffer.capacity()).position(end);
+        int n = channel.read(buffer);
+        if (n < 0) {
+            eof = true;
+        } else {
+            end += n;
+        }
+    }
+
+    /**
+     * Parse a frame, null for a blank line
+     */
+    private JsonNode parse(int from, int to) throws IOException {
+        while (from < to && isWhitespace(buffer.get(from))) {
+            from++;
+        }
+        while (to > from && isWhitespace(buffer.get(to - 1))) {
+            to--;
+        }
+        if (from == to) {
+            return null;
+        }
+        ByteBuffer frame = buffer.duplicate();
+        frame.limit(to).position(from);
+        return mapper.readTree(new ByteBufferBackedInputStream(frame));
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\r' || b == '\t' || b == '\n';
+    }
+
+    @Override
+    public void close() throws IOException {
+        pool.release(buffer);
+        buffer = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes newline-delimited JSON-RPC messages to a channel. Jackson serializes
+ * a message straight into a pooled direct buffer, which is written to the
+ * channel whenever it fills up and once the message is complete. Writes are
+ * serialized, so concurrent responses are never interleaved.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class JsonRpcWriter implements Closeable {
+    private final WritableByteChannel channel;
+    private final BufferPool pool;
+    private final ObjectMapper mapper;
+    private final ChannelOutputStream out = new ChannelOutputStream();
+
+    public JsonRpcWriter(WritableByteChannel channel, BufferPool pool, ObjectMapper mapper) {
+        this.channel = channel;
+        this.pool = pool;
+        this.mapper = mapper;
+    }
+
+    public synchronized void write(Object message) throws IOException {
+        ByteBuffer buffer = pool.acquire();
+        out.buffer = buffer;
+        try {
+            // 每次获取 writer，以便使用之后注册的编解码模块
+            mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, message);
+            out.write('\n');
+            out.drain();
+        } finally {
+            out.buffer = null;
+            pool.release(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private final class ChannelOutputStream extends OutputStream {
+        private ByteBuffer buffer;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int n = Math.min(len, buffer.remaining());
+                buffer.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,729 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.unionhole.mcp.runtime.AsyncCalls;
+import com.unionhole.mcp.runtime.BatchExecutor;
+import com.unionhole.mcp.runtime.CallContext;
+import com.unionhole.mcp.runtime.ChunkSink;
+import com.unionhole.mcp.runtime.ChunkedResults;
+import com.unionhole.mcp.runtime.JsonCodecs;
+import com.unionhole.mcp.runtime.MCPException;
+import com.unionhole.mcp.runtime.SpillStore;
+import com.unionhole.mcp.runtime.ToolDefinition;
+import com.unionhole.mcp.runtime.ToolRegistry;
+import com.unionhole.mcp.vo.MCPRequest;
+import com.unionhole.mcp.vo.SpilledRange;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded MCP server for facades generated with {@code -Amcp.runtime=plain}.
+ * It serves the tools registered in {@link ToolRegistry} over JSON-RPC, either
+ * on stdin/stdout or a Unix domain socket (one message per line, see
+ * {@link JsonRpcReader}) or over local HTTP (one JSON-RPC message or batch per
+ * POST), without Spring.
+ * <p>
+ * Tool calls run in a {@link CallContext} and a {@code notifications/cancelled}
+ * from the client cancels them. The context carries the caller session: a
+ * random id per stream or socket connection, the {@code Mcp-Session-Id}
+ * header over HTTP. Running calls are tracked per session, so clients that
+ * reuse request ids neither share a context nor cancel each other's calls;
+ * HTTP clients without a session header share one namespace. On streams tool
+ * calls are handled concurrently so that cancellations are read while a call
+ * is running,
+ * responses may therefore arrive out of order. A tool returning a
+ * {@code CompletionStage} is answered when the stage completes, without
+ * holding a thread while it runs. When the input ends the
+ * running calls get {@code mcp.server.drainMillis} (default 5000) to finish
+ * and answer, the rest are cancelled.
+ * <p>
+ * The server registers the {@code callTools} tool of {@link BatchExecutor},
+ * which runs several registered tools concurrently in one call.
+ * <p>
+ * Results spilled by {@code maxInlineBytes} are served as resources:
+ * {@code resources/read} returns the JSON of an {@code mcp-spill://} uri,
+ * optionally a range of it selected by {@code offset} and {@code length}.
+ * <p>
+ * The HTTP transport only accepts {@code application/json} bodies of at most
+ * {@code mcp.server.maxBodyBytes} (default 4 MB) addressed to a loopback host.
+ * A request carrying an {@code Origin} header is rejected unless the origin is
+ * a loopback one or listed in {@code mcp.server.allowedOrigins} (comma
+ * separated), so web pages cannot reach the server through DNS rebinding or
+ * simple cross-origin POSTs.
+ *
+ * <pre>
+ * WeatherServiceFacadeTools.register(new WeatherServiceFacade(new WeatherService()));
+ * new McpServer("weather", "1.0.0").serveStdio();
+ * </pre>
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class McpServer {
+    public static final String PROTOCOL_VERSION = "2024-11-05";
+    private static final Set<String> SUPPORTED_VERSIONS = Set.of(PROTOCOL_VERSION, "2025-03-26");
+
+    private static final Logger logger = Logger.getLogger(McpServer.class.getName());
+    private static final int PARSE_ERROR = -32700;
+    private static final int INVALID_REQUEST = -32600;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int INVALID_PARAMS = -32602;
+    private static final int INTERNAL_ERROR = -32603;
+    private static final String SESSION_HEADER = "Mcp-Session-Id";
+    private static final Set<String> LOOPBACK_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]");
+
+    private final String name;
+    private final String version;
+    private final ObjectMapper mapper = JsonCodecs.mapper();
+    private final long drainMillis = Long.getLong("mcp.server.drainMillis", 5000L);
+    private final int maxBodyBytes = Integer.getInteger("mcp.server.maxBodyBytes", 4 * 1024 * 1024);
+    private final Set<String> allowedOrigins = allowedOrigins(System.getProperty("mcp.server.allowedOrigins", ""));
+    // handle() 和 HTTP 请求中正在执行的工具调用，按会话和请求 id 索引，不同会话的相同 id 互不影响
+    private final Map<String, CallContext> calls = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mcp-call-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    public McpServer(String name, String version) {
+        this.name = name;
+        this.version = version;
+        BatchExecutor.register();
+    }
+
+    /**
+     * Serve on stdin/stdout until stdin is closed. While serving,
+     * {@code System.out} of the whole JVM is redirected to {@code System.err}
+     * so that output of the application cannot corrupt the protocol stream; it
+     * is restored when this method returns. Set
+     * {@code mcp.server.redirectStdout=false} to keep it.
+     */
+    public void serveStdio() throws IOException {
+        PrintStream stdout = System.out;
+        boolean redirect = Boolean.parseBoolean(System.getProperty("mcp.server.redirectStdout", "true"));
+        if (redirect) {
+            // stdout 只能输出协议消息，其他输出改到 stderr
+            System.setOut(System.err);
+        }
+        try {
+            serve(new FileInputStream(FileDescriptor.in).getChannel(),
+                    new FileOutputStream(FileDescriptor.out).getChannel());
+        } finally {
+            if (redirect) {
+                System.setOut(stdout);
+            }
+        }
+    }
+
+    public void serve(InputStream in, OutputStream out) throws IOException {
+        serve(Channels.newChannel(in), Channels.newChannel(out));
+    }
+
+    /**
+     * Serve newline-delimited JSON-RPC messages until the input ends
+     */
+    public void serve(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        JsonRpcReader reader = new JsonRpcReader(in, BufferPool.shared(), mapper);
+        JsonRpcWriter writer = new JsonRpcWriter(out, BufferPool.shared(), mapper);
+        Consumer<JsonNode> notifier = notification -> reply(writer, notification);
+        Map<String, CallContext> calls = new ConcurrentHashMap<>();
+        // 每个流是一个调用方会话
+        String session = UUID.randomUUID().toString();
+        AtomicInteger running = new AtomicInteger();
+        try {
+            while (true) {
+                JsonNode response;
+                try {
+                    JsonNode message = reader.read();
+                    if (message == null) {
+                        break;
+                    }
+                    if (message.isObject() && "tools/call".equals(message.path("method").asText())) {
+                        // 工具调用在线程池中执行，继续读取后续消息（包括取消通知）；
+                        // 先登记调用上下文，调用开始前到达的取消通知也能生效
+                        String key = message.hasNonNull("id") ? callKey(session, message.get("id")) : null;
+                        CallContext registered = CallContext.root().child(0, session);
+                        if (key != null) {
+                            calls.putIfAbsent(key, registered);
+                        }
+                        running.incrementAndGet();
+                        executor.execute(() -> dispatch(message, calls, session, notifier).whenComplete((answer, error) -> {
+                            // 调用未执行就失败时（如未知工具）也移除登记的上下文
+                            if (key != null) {
+                                calls.remove(key, registered);
+                            }
+                            // 异步工具在完成时应答，执行线程已经返回
+                            reply(writer, answer);
+                            synchronized (running) {
+                                running.decrementAndGet();
+                                running.notifyAll();
+                            }
+                        }));
+                        continue;
+                    }
+                    response = handle(message, calls, session, notifier);
+                } catch (JsonProcessingException e) {
+                    // 只丢弃出错的一行，继续读取下一条消息
+                    response = error(null, PARSE_ERROR, "Parse error: " + e.getOriginalMessage());
+                }
+                if (response != null) {
+                    writer.write(response);
+                }
+            }
+        } finally {
+            // 输入结束后等待正在执行的调用应答，超时后放弃剩余的调用
+            drain(running);
+            for (CallContext context : calls.values()) {
+                context.cancel();
+            }
+            reader.close();
+        }
+    }
+
+    private void drain(AtomicInteger running) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainMillis);
+        synchronized (running) {
+            long remaining;
+            while (running.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(running, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void reply(JsonRpcWriter writer, JsonNode response) {
+        if (response == null) {
+            return;
+        }
+        try {
+            writer.write(response);
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Failed to write response", e);
+        }
+    }
+
+    /**
+     * Accept connections on a Unix domain socket, each served on its own thread
+     * until the client disconnects. Blocks until the server channel is closed.
+     */
+    public void serveUnixSocket(Path path) throws IOException {
+        Files.deleteIfExists(path);
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(path));
+            logger.info("MCP server " + name + " listening on " + path);
+            AtomicInteger count = new AtomicInteger();
+            while (server.isOpen()) {
+                SocketChannel client = server.accept();
+                Thread thread = new Thread(() -> {
+                    try {
+                        serve(client, client);
+                    } catch (IOException e) {
+                        logger.log(Level.FINE, "Connection closed", e);
+                    }
+                }, "mcp-socket-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Start serving POST requests on the loopback interface, path {@code /mcp}
+     */
+    public HttpServer startHttp(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/mcp", this::handleHttp);
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "mcp-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        logger.info("MCP server " + name + " listening on http://" + server.getAddress().getHostString() + ":"
+                + server.getAddress().getPort() + "/mcp");
+        return server;
+    }
+
+    /**
+     * Handle one JSON-RPC message or batch, null when nothing is to be sent back
+     * (notifications)
+     */
+    public String handle(String message) {
+        JsonNode root;
+        try {
+            root = mapper.readTree(message);
+        } catch (JsonProcessingException e) {
+            return write(error(null, PARSE_ERROR, "Parse error: " + e.getOriginalMessage()));
+        }
+        JsonNode response = handle(root);
+        return response != null ? write(response) : null;
+    }
+
+    /**
+     * Handle a parsed JSON-RPC message or batch, null when nothing is to be
+     * sent back
+     */
+    public JsonNode handle(JsonNode root) {
+        return handle(root, calls, null, null);
+    }
+
+    private JsonNode handle(JsonNode root, Map<String, CallContext> calls, String session,
+                            Consumer<JsonNode> notifier) {
+        if (root != null && root.isArray()) {
+            // 异步工具的调用相互重叠，按请求顺序收集响应
+            List<CompletableFuture<JsonNode>> pending = new ArrayList<>();
+            for (JsonNode request : root) {
+                pending.add(dispatch(request, calls, session, notifier));
+            }
+            ArrayNode responses = mapper.createArrayNode();
+            for (CompletableFuture<JsonNode> future : pending) {
+                JsonNode response = future.join();
+                if (response != null) {
+                    responses.add(response);
+                }
+            }
+            return responses.isEmpty() ? null : responses;
+        }
+        return dispatch(root, calls, session, notifier).join();
+    }
+
+    private void handleHttp(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            // 拒绝网页发起的请求：DNS 重绑定的 Host 和非本机 Origin
+            if (!isLoopbackHost(exchange.getRequestHeaders().getFirst("Host"))
+                    || !isAllowedOrigin(exchange.getRequestHeaders().getFirst("Origin"))) {
+                exchange.sendResponseHeaders(403, -1);
+                return;
+            }
+            // text/plain 等无需预检的跨域 POST 不被接受
+            if (!isJson(exchange.getRequestHeaders().getFirst("Content-Type"))) {
+                exchange.sendResponseHeaders(415, -1);
+                return;
+            }
+            byte[] body = exchange.getRequestBody().readNBytes(maxBodyBytes + 1);
+            if (body.length > maxBodyBytes) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            JsonNode response;
+            try {
+                // 一个请求只有一个响应，HTTP 上不发送进度通知
+                response = handle(mapper.readTree(body), calls, exchange.getRequestHeaders().getFirst(SESSION_HEADER),
+                        null);
+            } catch (JsonProcessingException e) {
+                response = error(null, PARSE_ERROR, "Parse error: " + e.getOriginalMessage());
+            }
+            if (response == null) {
+                exchange.sendResponseHeaders(202, -1);
+                return;
+            }
+            byte[] bytes = mapper.writeValueAsBytes(response);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int end = contentType.indexOf(';');
+        String mediaType = (end < 0 ? contentType : contentType.substring(0, end)).trim();
+        return mediaType.equalsIgnoreCase("application/json");
+    }
+
+    /**
+     * Whether the Host header names the loopback interface the server listens on
+     */
+    private static boolean isLoopbackHost(String host) {
+        return host != null && LOOPBACK_HOSTS.contains(stripPort(host.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Requests without Origin come from non-browser clients and are allowed
+     */
+    private boolean isAllowedOrigin(String origin) {
+        if (origin == null) {
+            return true;
+        }
+        String normalized = origin.trim().toLowerCase(Locale.ROOT);
+        if (allowedOrigins.contains(normalized)) {
+            return true;
+        }
+        int scheme = normalized.indexOf("://");
+        return scheme > 0 && LOOPBACK_HOSTS.contains(stripPort(normalized.substring(scheme + 3)));
+    }
+
+    private static String stripPort(String authority) {
+        int colon = authority.lastIndexOf(':');
+        // IPv6 地址的冒号在方括号内
+        return colon > authority.lastIndexOf(']') ? authority.substring(0, colon) : authority;
+    }
+
+    private static Set<String> allowedOrigins(String value) {
+        Set<String> origins = new HashSet<>();
+        for (String origin : value.split(",")) {
+            if (!origin.isBlank()) {
+                origins.add(origin.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return origins;
+    }
+
+    /**
+     * Answer one request, the future completes when an asynchronous tool does
+     */
+    private CompletableFuture<JsonNode> dispatch(JsonNode request, Map<String, CallContext> calls, String session,
+                                                 Consumer<JsonNode> notifier) {
+        if (request == null || !request.isObject() || !request.hasNonNull("method")) {
+            return CompletableFuture.completedFuture(error(null, INVALID_REQUEST, "Invalid request"));
+        }
+        JsonNode id = request.get("id");
+        String method = request.get("method").asText();
+        JsonNode params = request.path("params");
+        CompletableFuture<JsonNode> result;
+        try {
+            switch (method) {
+                case "initialize":
+                    result = CompletableFuture.completedFuture(initialize(params));
+                    break;
+                case "ping":
+                    result = CompletableFuture.completedFuture(mapper.createObjectNode());
+                    break;
+                case "tools/list":
+                    result = CompletableFuture.completedFuture(listTools());
+                    break;
+                case "tools/call":
+                    result = callTool(id, params, calls, session, notifier);
+                    break;
+                case "resources/list":
+                    // 溢出的结果只通过工具结果中的 uri 引用，不在列表中列出
+                    ObjectNode resources = mapper.createObjectNode();
+                    resources.putArray("resources");
+                    result = CompletableFuture.completedFuture(resources);
+                    break;
+                case "resources/read":
+                    try {
+                        result = CompletableFuture.completedFuture(readResource(params));
+                    } catch (IllegalArgumentException e) {
+                        return CompletableFuture.completedFuture(id == null ? null : error(id, INVALID_PARAMS, e.getMessage()));
+                    }
+                    break;
+                case "notifications/cancelled":
+                    CallContext cancelled = calls.get(callKey(session, params.path("requestId")));
+                    if (cancelled != null) {
+                        cancelled.cancel();
+                    }
+                    return CompletableFuture.completedFuture(null);
+                default:
+                    if (id == null) {
+                        // notifications/initialized 等通知不需要响应
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return CompletableFuture.completedFuture(error(id, METHOD_NOT_FOUND, "Method not found: " + method));
+            }
+        } catch (Exception e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.handle((value, error) -> {
+            Throwable cause = AsyncCalls.unwrap(error);
+            if (cause instanceof UnknownToolException) {
+                return id == null ? null : error(id, INVALID_PARAMS, cause.getMessage());
+            }
+            if (cause != null) {
+                logger.log(Level.WARNING, "Failed to handle " + method, cause);
+                return id == null ? null : error(id, INTERNAL_ERROR, String.valueOf(cause.getMessage()));
+            }
+            // 被客户端取消的请求不再响应
+            if (id == null || value == null) {
+                return null;
+            }
+            ObjectNode response = mapper.createObjectNode();
+            response.put("jsonrpc", "2.0");
+            response.set("id", id);
+            response.set("result", value);
+            return response;
+        });
+    }
+
+    private JsonNode initialize(JsonNode params) {
+        ObjectNode result = mapper.createObjectNode();
+        String requested = params.path("protocolVersion").asText(PROTOCOL_VERSION);
+        result.put("protocolVersion", SUPPORTED_VERSIONS.contains(requested) ? requested : PROTOCOL_VERSION);
+        ObjectNode capabilities = result.putObject("capabilities");
+        capabilities.putObject("tools").put("listChanged", false);
+        capabilities.putObject("resources").put("subscribe", false).put("listChanged", false);
+        ObjectNode serverInfo = result.putObject("serverInfo");
+        serverInfo.put("name", name);
+        serverInfo.put("version", version);
+        return result;
+    }
+
+    private JsonNode listTools() throws IOException {
+        ObjectNode result = mapper.createObjectNode();
+        ArrayNode tools = result.putArray("tools");
+        for (ToolDefinition tool : ToolRegistry.all()) {
+            ObjectNode node = tools.addObject();
+            node.put("name", tool.getName());
+            node.put("description", tool.getDescription());
+            node.set("inputSchema", mapper.readTree(tool.getInputSchema()));
+        }
+        return result;
+    }
+
+    /**
+     * Read a spilled result by its {@code mcp-spill://} uri. The whole result is
+     * returned unless the optional {@code offset} and {@code length} parameters
+     * select a range
+     */
+    private JsonNode readResource(JsonNode params) {
+        String uri = params.path("uri").asText(null);
+        SpilledRange range = SpillStore.read(uri, params.path("offset").asLong(0),
+                params.path("length").asInt(Integer.MAX_VALUE));
+        ObjectNode result = mapper.createObjectNode();
+        ObjectNode content = result.putArray("contents").addObject();
+        content.put("uri", uri);
+        content.put("mimeType", SpillStore.MIME_TYPE);
+        content.put("text", range.getText());
+        return result;
+    }
+
+    /**
+     * Forwards the chunks of a streamed result as {@code notifications/progress}:
+     * {@code progress} counts the elements sent so far, {@code message} holds the
+     * JSON array of the chunk
+     */
+    private ChunkSink progressSink(JsonNode progressToken, Consumer<JsonNode> notifier) {
+        long[] sent = new long[1];
+        return (tool, sequence, items) -> {
+            sent[0] += items.size();
+            ObjectNode notification = mapper.createObjectNode();
+            notification.put("jsonrpc", "2.0");
+            notification.put("method", "notifications/progress");
+            ObjectNode params = notification.putObject("params");
+            params.set("progressToken", progressToken);
+            params.put("progress", sent[0]);
+            params.put("message", mapper.writeValueAsString(items));
+            notifier.accept(notification);
+        };
+    }
+
+    /**
+     * Key of a running call: request ids are only unique within the session
+     * of the caller
+     */
+    private static String callKey(String session, JsonNode id) {
+        return session != null ? session + ' ' + id : id.toString();
+    }
+
+    /**
+     * Call a tool; a tool returning a CompletionStage is answered when the
+     * stage completes. The future completes with null when the client
+     * cancelled the call.
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<JsonNode> callTool(JsonNode id, JsonNode params, Map<String, CallContext> calls,
+                                                 String session, Consumer<JsonNode> notifier) throws Exception {
+        String key = id != null ? callKey(session, id) : null;
+        CallContext context = key != null
+                ? calls.computeIfAbsent(key, k -> CallContext.root().child(0, session))
+                : CallContext.root().child(0, session);
+        String toolName = params.path("name").asText();
+        ToolDefinition tool = ToolRegistry.get(toolName);
+        Map<String, Object> arguments;
+        try {
+            if (tool == null) {
+                throw new UnknownToolException("Unknown tool: " + toolName);
+            }
+            arguments = params.hasNonNull("arguments")
+                    ? mapper.convertValue(params.get("arguments"), Map.class)
+                    : new HashMap<>();
+        } catch (UnknownToolException | RuntimeException e) {
+            // 调用未开始，登记的上下文不会在完成时移除
+            if (key != null) {
+                calls.remove(key, context);
+            }
+            throw e;
+        }
+        // 请求带 progressToken 且传输可以发送通知时，流式结果的分块以进度通知发出，不在内存中收集
+        JsonNode progressToken = params.path("_meta").get("progressToken");
+        ChunkSink sink = notifier != null && progressToken != null && !progressToken.isNull()
+                ? progressSink(progressToken, notifier)
+                : null;
+        CompletableFuture<Object> completion;
+        try {
+            Object value = context.run(() -> {
+                ChunkSink previous = sink != null ? ChunkedResults.bind(sink) : null;
+                try {
+                    return tool.getHandler().call(new MCPRequest(arguments));
+                } finally {
+                    if (sink != null) {
+                        ChunkedResults.bind(previous);
+                    }
+                }
+            });
+            completion = value instanceof CompletionStage
+                    ? context.runAsync(() -> ((CompletionStage<Object>) value).toCompletableFuture())
+                    : CompletableFuture.completedFuture(value);
+        } catch (Exception e) {
+            completion = CompletableFuture.failedFuture(e);
+        }
+        return completion.handle((value, error) -> {
+            if (key != null) {
+                calls.remove(key, context);
+            }
+            Throwable cause = AsyncCalls.unwrap(error);
+            if (cause instanceof MCPException && CallContext.CANCELLED.equals(((MCPException) cause).getCode())
+                    && context.isCancelled()) {
+                return null;
+            }
+            if (cause != null && !(cause instanceof RuntimeException)) {
+                throw new CompletionException(cause);
+            }
+            String text;
+            try {
+                // 工具执行错误作为结果返回，模型可以看到并处理
+                text = cause != null ? String.valueOf(cause.getMessage()) : toText(value);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            ObjectNode result = mapper.createObjectNode();
+            ObjectNode content = result.putArray("content").addObject();
+            content.put("type", "text");
+            content.put("text", text);
+            result.put("isError", cause != null);
+            return result;
+        });
+    }
+
+    private String toText(Object value) throws IOException {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence) {
+            return value.toString();
+        }
+        if (value instanceof RawValue) {
+            // 缓存和内联结果已经是 JSON 文本
+            Object raw = ((RawValue) value).rawValue();
+            if (raw instanceof String) {
+                return (String) raw;
+            }
+            if (raw instanceof SerializableString) {
+                return ((SerializableString) raw).getValue();
+            }
+        }
+        return mapper.writeValueAsString(value);
+    }
+
+    private JsonNode error(JsonNode id, int code, String message) {
+        ObjectNode response = mapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        ObjectNode error = response.putObject("error");
+        error.put("code", code);
+        error.put("message", message);
+        return response;
+    }
+
+    private String write(JsonNode node) {
+        try {
+            return mapper.writeValueAsString(node);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class UnknownToolException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnknownToolException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.unionhole.mcp.runtime.AsyncCalls;
+import com.unionhole.mcp.runtime.JsonCodecs;
+import com.unionhole.mcp.runtime.MCPException;
+import com.unionhole.mcp.runtime.ToolRegistry;
+import com.unionhole.mcp.vo.ReplayReport;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays calls sampled by {@code TrafficCapture} against the tool registry,
+ * an {@link McpServer} in the same process or a server listening over HTTP.
+ *
+ * <p>With a positive speed the calls start at their captured offsets divided
+ * by the speed and latency is measured from the planned start, so a target
+ * that falls behind shows the queueing delay instead of slowing down the
+ * load. With speed 0 the calls run back to back, at most {@code concurrency}
+ * at a time.
+ *
+ * <pre>
+ * java -cp ... com.unionhole.mcp.server.TrafficReplay capture.jsonl.gz http://127.0.0.1:8080/mcp 2 64
+ * </pre>
+ *
+ * Arguments: capture file, MCP endpoint, speed (default 1) and concurrency
+ * (default 64).
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public final class TrafficReplay {
+    private static final Logger logger = Logger.getLogger(TrafficReplay.class.getName());
+    private static final String TOOL_ERROR = "500";
+
+    /**
+     * Where the replayed calls go; a failed call throws
+     */
+    @FunctionalInterface
+    public interface Target {
+        Object call(String tool, Map<String, Object> arguments) throws Exception;
+    }
+
+    private final List<Call> calls;
+
+    private TrafficReplay(List<Call> calls) {
+        this.calls = calls;
+    }
+
+    /**
+     * Read a capture file, gzip-compressed if its name ends with {@code .gz}.
+     * A file left by a process that did not shut down ends after its last
+     * flushed batch.
+     */
+    @SuppressWarnings("unchecked")
+    public static TrafficReplay load(Path file) throws IOException {
+        ObjectMapper mapper = JsonCodecs.mapper();
+        List<Call> calls = new ArrayList<>();
+        boolean gzip = file.getFileName().toString().endsWith(".gz");
+        try (InputStream in = Files.newInputStream(file);
+             TruncatedInputStream records = new TruncatedInputStream(gzip ? new GZIPInputStream(in, 65536) : in);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(records, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = mapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    // 未刷新完的最后一行
+                    logger.warning("Skipped an incomplete record in " + file);
+                    continue;
+                }
+                calls.add(new Call(node.path("at").asLong(), node.path("tool").asText(),
+                        node.hasNonNull("args") ? mapper.convertValue(node.get("args"), Map.class) : null,
+                        node.path("micros").asLong()));
+            }
+            if (records.truncated) {
+                logger.warning("Capture file " + file + " is truncated, replaying " + calls.size() + " calls");
+            }
+        }
+        // 记录按完成顺序写入
+        calls.sort(Comparator.comparingLong(call -> call.at));
+        return new TrafficReplay(calls);
+    }
+
+    public int size() {
+        return calls.size();
+    }
+
+    /**
+     * Replay all calls and wait for them to finish
+     *
+     * @param speed multiple of the captured rate, 0 to run the calls back to back
+     * @param concurrency number of calls in flight at most
+     */
+    public ReplayReport run(Target target, double speed, int concurrency) throws InterruptedException {
+        int count = calls.size();
+        long[] latencies = new long[count];
+        LongAdder errors = new LongAdder();
+        CountDownLatch done = new CountDownLatch(count);
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "mcp-replay-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean paced = speed > 0;
+        long first = count > 0 ? calls.get(0).at : 0;
+        long origin = System.nanoTime();
+        try {
+            for (int i = 0; i < count; i++) {
+                Call call = calls.get(i);
+                long planned;
+                if (paced) {
+                    planned = origin + (long) (TimeUnit.MICROSECONDS.toNanos(call.at - first) / speed);
+                    long wait;
+                    while ((wait = planned - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    permits.acquire();
+                    planned = 0;
+                }
+                int index = i;
+                executor.execute(() -> {
+                    // 按计划时间计算延迟，包含目标处理不过来时的排队时间
+                    long start = paced ? planned : System.nanoTime();
+                    try {
+                        target.call(call.tool, call.arguments);
+                    } catch (Exception e) {
+                        errors.increment();
+                    } finally {
+                        latencies[index] = System.nanoTime() - start;
+                        if (!paced) {
+                            permits.release();
+                        }
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - origin;
+
+        long[] captured = new long[count];
+        for (int i = 0; i < count; i++) {
+            latencies[i] = TimeUnit.NANOSECONDS.toMicros(latencies[i]);
+            captured[i] = calls.get(i).micros;
+        }
+        Arrays.sort(latencies);
+        Arrays.sort(captured);
+        return new ReplayReport(count, errors.sum(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                elapsed > 0 ? count * 1e9 / elapsed : 0,
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), count > 0 ? latencies[count - 1] : 0,
+                percentile(captured, 0.50), percentile(captured, 0.99));
+    }
+
+    /**
+     * Call the tools registered in this process, waiting for asynchronous results
+     */
+    public static Target registry() {
+        return (tool, arguments) -> {
+            Object result = ToolRegistry.call(tool, arguments);
+            if (result instanceof CompletionStage) {
+                result = AsyncCalls.await(((CompletionStage<?>) result).toCompletableFuture());
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Send {@code tools/call} requests through the JSON-RPC handling of a server
+     */
+    public static Target server(McpServer server) {
+        AtomicLong ids = new AtomicLong();
+        return (tool, arguments) -> result(server.handle(request(ids.incrementAndGet(), tool, arguments)));
+    }
+
+    /**
+     * Post {@code tools/call} requests to a server started with {@link McpServer#startHttp}
+     */
+    public static Target http(URI endpoint) {
+        // 本地服务只支持 HTTP/1.1，避免每个请求尝试升级协议
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ObjectMapper mapper = JsonCodecs.mapper();
+        AtomicLong ids = new AtomicLong();
+        return (tool, arguments) -> {
+            byte[] body = mapper.writeValueAsBytes(request(ids.incrementAndGet(), tool, arguments));
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(endpoint)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " from " + endpoint);
+            }
+            return result(mapper.readTree(response.body()));
+        };
+    }
+
+    private static JsonNode request(long id, String tool, Map<String, Object> arguments) {
+        ObjectNode request = JsonCodecs.mapper().createObjectNode();
+        request.put("jsonrpc", "2.0");
+        request.put("id", id);
+        request.put("method", "tools/call");
+        ObjectNode params = request.putObject("params");
+        params.put("name", tool);
+        params.set("arguments", JsonCodecs.mapper().valueToTree(
+                arguments != null ? arguments : Collections.emptyMap()));
+        return request;
+    }
+
+    /**
+     * The result of a {@code tools/call} response, protocol and tool errors throw
+     */
+    private static JsonNode result(JsonNode response) {
+        if (response == null) {
+            throw new MCPException("No response", TOOL_ERROR);
+        }
+        JsonNode error = response.get("error");
+        if (error != null) {
+            throw new MCPException(error.path("message").asText(), error.path("code").asText());
+        }
+        JsonNode result = response.path("result");
+        if (result.path("isError").asBoolean()) {
+            throw new MCPException(result.path("content").path(0).path("text").asText(), TOOL_ERROR);
+        }
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: TrafficReplay <capture file> <MCP endpoint> [speed] [concurrency]");
+            System.exit(2);
+        }
+        TrafficReplay replay = load(Paths.get(args[0]));
+        double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        System.out.println(replay.run(http(URI.create(args[1])), speed, concurrency));
+    }
+
+    /**
+     * Ends the stream where a gzip file without trailer stops, so the records
+     * read ahead before it are kept
+     */
+    private static final class TruncatedInputStream extends FilterInputStream {
+        private boolean truncated;
+
+        TruncatedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (truncated) {
+                return -1;
+            }
+            try {
+                return super.read();
+            } catch (EOFException e) {
+                truncated = true;
+                return -1;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (truncated) {
+                return -1;
+            }
+            try {
+                return super.read(b, off, len);
+            } catch (EOFException e) {
+                truncated = true;
+                return -1;
+            }
+        }
+    }
+
+    private static final class Call {
+        final long at;
+        final String tool;
+        final Map<String, Object> arguments;
+        final long micros;
+
+        Call(long at, String tool, Map<String, Object> arguments, long micros) {
+            this.at = at;
+            this.tool = tool;
+            this.arguments = arguments;
+            this.micros = micros;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.vo;
+
+import java.util.List;
+
+/**
+ * Result of a tool whose service method returns a Stream or Iterator.
+ * When a chunk sink is installed the elements have already been delivered
+ * chunk by chunk and only the totals are returned, otherwise the elements
+ * are carried in {@link #getItems()}.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class ChunkedResult {
+    private final boolean streamed;
+    private final int chunks;
+    private final long total;
+    private final List<Object> items;
+
+    public ChunkedResult(boolean streamed, int chunks, long total, List<Object> items) {
+        this.streamed = streamed;
+        this.chunks = chunks;
+        this.total = total;
+        this.items = items;
+    }
+
+    public boolean isStreamed() {
+        return streamed;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public List<Object> getItems() {
+        return items;
+    }
+}
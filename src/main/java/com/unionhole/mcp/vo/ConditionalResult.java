@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of a conditional tool. {@code hash} identifies the content of the
+ * result; a client passes it back as {@code ifNoneMatch} on the next poll and
+ * gets {@code unchanged = true} without a {@code value} while the result stays
+ * the same.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConditionalResult {
+    private final String hash;
+    private final boolean unchanged;
+    private final Object value;
+
+    public ConditionalResult(String hash, boolean unchanged, Object value) {
+        this.hash = hash;
+        this.unchanged = unchanged;
+        this.value = value;
+    }
+
+    public static ConditionalResult unchanged(String hash) {
+        return new ConditionalResult(hash, true, null);
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+}
@@ -15,7 +15,9 @@
  */
 package com.unionhole.mcp.vo;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.unionhole.mcp.runtime.JsonCodecs;
+import com.unionhole.mcp.runtime.MCPException;
 import java.util.Map;
 /**
  * MCP Request wrapper class
@@ -25,7 +27,6 @@ import java.util.Map;
  * @since 2024/03/19
  */
 public class MCPRequest {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     private final Map<String, Object> parameters;
 
     public MCPRequest(Map<String, Object> parameters) {
@@ -37,7 +38,26 @@ public class MCPRequest {
         if (value == null) {
             return null;
         }
-        return objectMapper.convertValue(value, type);
+        return JsonCodecs.mapper().convertValue(value, type);
+    }
+
+    public <T> T getParameter(String name, TypeReference<T> type) {
+        Object value = parameters.get(name);
+        if (value == null) {
+            return null;
+        }
+        return JsonCodecs.mapper().convertValue(value, type);
+    }
+
+    /**
+     * Bind a parameter that must be present, e.g. one of a primitive type
+     */
+    public <T> T getRequiredParameter(String name, Class<T> type) {
+        T value = getParameter(name, type);
+        if (value == null) {
+            throw new MCPException("Missing parameter " + name, MCPException.BAD_REQUEST);
+        }
+        return value;
     }
 
     public Map<String, Object> getParameters() {
@@ -14,6 +14,9 @@
  * limitations under the License.
  */
 package com.unionhole.mcp.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * MCP Response wrapper class
  *
@@ -21,6 +24,7 @@ package com.unionhole.mcp.vo;
  * @version 1.0.0
  * @since 2024/03/19
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class MCPResponse {
     private final boolean success;
     private final Object data;
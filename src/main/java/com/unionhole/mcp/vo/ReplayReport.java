@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.vo;
+
+/**
+ * Latency and throughput of a traffic replay, latencies in microseconds. The
+ * captured percentiles are those of the same calls when they were recorded.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class ReplayReport {
+    private final int calls;
+    private final long errors;
+    private final long elapsedMillis;
+    private final double throughput;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final long max;
+    private final long capturedP50;
+    private final long capturedP99;
+
+    public ReplayReport(int calls, long errors, long elapsedMillis, double throughput, long p50, long p90,
+                        long p99, long p999, long max, long capturedP50, long capturedP99) {
+        this.calls = calls;
+        this.errors = errors;
+        this.elapsedMillis = elapsedMillis;
+        this.throughput = throughput;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+        this.capturedP50 = capturedP50;
+        this.capturedP99 = capturedP99;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Completed calls per second
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getCapturedP50() {
+        return capturedP50;
+    }
+
+    public long getCapturedP99() {
+        return capturedP99;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("calls=%d errors=%d elapsed=%dms throughput=%.1f/s latency(us) p50=%d p90=%d p99=%d "
+                        + "p99.9=%d max=%d captured(us) p50=%d p99=%d", calls, errors, elapsedMillis, throughput,
+                p50, p90, p99, p999, max, capturedP50, capturedP99);
+    }
+}
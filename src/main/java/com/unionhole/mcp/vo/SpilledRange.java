@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.vo;
+
+/**
+ * A range of a spilled result. The range never splits a UTF-8 character, so
+ * {@code offset + length} is the offset to ask for next.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class SpilledRange {
+    private final String uri;
+    private final long offset;
+    private final int length;
+    private final long size;
+    private final String text;
+
+    public SpilledRange(String uri, long offset, int length, long size, String text) {
+        this.uri = uri;
+        this.offset = offset;
+        this.length = length;
+        this.size = size;
+        this.text = text;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isLast() {
+        return offset + length >= size;
+    }
+}
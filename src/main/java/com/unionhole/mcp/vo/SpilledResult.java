@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.vo;
+
+/**
+ * Reference returned in place of a result that exceeded the inline size limit.
+ * The payload is the JSON serialization of the original result and can be read
+ * in ranges through {@code SpillStore#read}.
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class SpilledResult {
+    private final String uri;
+    private final long size;
+    private final String mimeType;
+    private final long expiresAt;
+
+    public SpilledResult(String uri, long size, String mimeType, long expiresAt) {
+        this.uri = uri;
+        this.size = size;
+        this.mimeType = mimeType;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.vo;
+
+/**
+ * One entry of the in-memory ring of recent tool calls
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class ToolCallRecord {
+    private final long timestamp;
+    private final String tool;
+    private final long argumentBytes;
+    private final long durationNanos;
+    private final String outcome;
+    private final String thread;
+
+    public ToolCallRecord(long timestamp, String tool, long argumentBytes, long durationNanos,
+                          String outcome, String thread) {
+        this.timestamp = timestamp;
+        this.tool = tool;
+        this.argumentBytes = argumentBytes;
+        this.durationNanos = durationNanos;
+        this.outcome = outcome;
+        this.thread = thread;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getTool() {
+        return tool;
+    }
+
+    public long getArgumentBytes() {
+        return argumentBytes;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.remote;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unionhole.mcp.server.BufferPool;
+import com.unionhole.mcp.server.JsonRpcReader;
+import com.unionhole.mcp.server.JsonRpcWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Health state, trial requests and cancellation of a {@link RemoteNode}
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+class RemoteNodeTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void goesDownAfterConsecutiveFailures() {
+        RemoteNode node = node(new InetSocketAddress(InetAddress.getLoopbackAddress(), 1), 60_000);
+        node.failed();
+        node.succeeded();
+        node.failed();
+        // 成功会清零连续失败计数
+        assertTrue(node.isHealthy());
+        assertTrue(node.admit());
+        node.failed();
+        assertFalse(node.isHealthy());
+        assertFalse(node.admit());
+    }
+
+    @Test
+    void admitsASingleTrialRequestAfterTheCooldown() throws InterruptedException {
+        RemoteNode node = node(new InetSocketAddress(InetAddress.getLoopbackAddress(), 1), 20);
+        node.failed();
+        node.failed();
+        assertFalse(node.admit());
+        Thread.sleep(40);
+        assertTrue(node.isHealthy());
+        assertTrue(node.admit());
+        // 试探请求未结束前不放行其他请求
+        assertFalse(node.admit());
+        assertFalse(node.isHealthy());
+        node.succeeded();
+        assertTrue(node.admit());
+        assertTrue(node.admit());
+    }
+
+    @Test
+    void failedTrialKeepsTheNodeDown() throws InterruptedException {
+        RemoteNode node = node(new InetSocketAddress(InetAddress.getLoopbackAddress(), 1), 50);
+        node.failed();
+        node.failed();
+        Thread.sleep(70);
+        assertTrue(node.admit());
+        node.failed();
+        assertFalse(node.admit());
+        assertFalse(node.isHealthy());
+    }
+
+    @Test
+    void settledTrialLetsAnotherTrialGo() throws InterruptedException {
+        RemoteNode node = node(new InetSocketAddress(InetAddress.getLoopbackAddress(), 1), 20);
+        node.failed();
+        node.failed();
+        Thread.sleep(40);
+        assertTrue(node.admit());
+        node.settled();
+        // 调用方取消不说明节点状态，允许下一次试探
+        assertTrue(node.admit());
+        assertFalse(node.admit());
+    }
+
+    @Test
+    void cancellingARequestSendsCancelToTheNode() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            RemoteNode node = node((InetSocketAddress) server.getLocalAddress(), 60_000);
+            try {
+                CompletableFuture<JsonNode> future = node.send(7, request(7));
+                try (SocketChannel accepted = server.accept();
+                     JsonRpcReader reader = new JsonRpcReader(accepted, BufferPool.shared(), mapper)) {
+                    assertEquals(7, reader.read().path("id").asLong());
+                    future.cancel(true);
+                    JsonNode cancel = reader.read();
+                    assertEquals(ServiceNode.CANCEL, cancel.path("method").asText());
+                    assertEquals(7, cancel.path("params").path("id").asLong());
+                }
+            } finally {
+                node.close();
+            }
+        }
+    }
+
+    @Test
+    void completesRequestsByIdAndFailsPendingOnesWhenTheConnectionCloses() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            RemoteNode node = node((InetSocketAddress) server.getLocalAddress(), 60_000);
+            try {
+                CompletableFuture<JsonNode> first = node.send(1, request(1));
+                CompletableFuture<JsonNode> second = node.send(2, request(2));
+                try (SocketChannel accepted = server.accept();
+                     JsonRpcReader reader = new JsonRpcReader(accepted, BufferPool.shared(), mapper)) {
+                    reader.read();
+                    reader.read();
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("id", 2);
+                    response.put("result", "ok");
+                    new JsonRpcWriter(accepted, BufferPool.shared(), mapper).write(response);
+                    assertEquals("ok", second.get(2, TimeUnit.SECONDS).path("result").asText());
+                    assertFalse(first.isDone());
+                }
+                // 连接断开后未完成的请求以 IOException 失败
+                ExecutionException failure = assertThrows(ExecutionException.class,
+                        () -> first.get(2, TimeUnit.SECONDS));
+                assertInstanceOf(IOException.class, failure.getCause());
+            } finally {
+                node.close();
+            }
+        }
+    }
+
+    private RemoteNode node(InetSocketAddress address, long downMillis) {
+        return new RemoteNode(address, 1, mapper, 2, downMillis, 1000);
+    }
+
+    private static Map<String, Object> request(long id) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", id);
+        message.put("method", "WeatherService.find");
+        message.put("params", Collections.singletonMap("city", "Oslo"));
+        return message;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Segment rotation, retention and dropping of {@link AuditJournal}
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+class AuditJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rollsFullSegmentsAndTrimsThemOnClose() throws IOException {
+        AuditJournal journal = new AuditJournal(dir, 512, 0, 1024, 5);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(journal.append("WeatherService.find", "s" + i, new Object[]{"Oslo", i}, "success", 1000));
+        }
+        journal.close();
+        assertEquals(20, journal.getWritten());
+        assertEquals(0, journal.getDropped());
+
+        List<Path> files = segments();
+        assertTrue(files.size() > 1);
+        List<String> lines = new ArrayList<>();
+        for (Path file : files) {
+            // 关闭后段文件截断到实际写入的长度
+            byte[] content = Files.readAllBytes(file);
+            assertTrue(content.length > 0 && content.length <= 512);
+            assertEquals('\n', content[content.length - 1]);
+            lines.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+        assertEquals(20, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode node = JsonCodecs.mapper().readTree(lines.get(i));
+            assertEquals("WeatherService.find", node.get("tool").asText());
+            assertEquals("s" + i, node.get("session").asText());
+            assertEquals("success", node.get("outcome").asText());
+            assertEquals(1, node.get("micros").asLong());
+        }
+    }
+
+    @Test
+    void prunesOnlyItsOwnSegments() throws IOException {
+        Path earlier = dir.resolve("audit-0.jsonl");
+        Files.write(earlier, "{\"tool\":\"earlier\"}\n".getBytes(StandardCharsets.UTF_8));
+        AuditJournal journal = new AuditJournal(dir, 512, 2, 1024, 5);
+        for (int i = 0; i < 40; i++) {
+            journal.append("WeatherService.find", null, new Object[]{i}, "success", 0);
+        }
+        journal.close();
+
+        // 上次运行留下的段不受保留数量限制
+        assertTrue(Files.exists(earlier));
+        List<Path> own = segments().stream().filter(file -> !file.equals(earlier)).collect(Collectors.toList());
+        assertEquals(2, own.size());
+        // 保留的是最新的段，编号从已有段之后开始
+        for (Path file : own) {
+            assertFalse(file.getFileName().toString().equals("audit-1.jsonl"));
+        }
+    }
+
+    @Test
+    void dropsRecordsBeyondTheQueueAndAfterClose() throws IOException, InterruptedException {
+        // 刷新间隔很长，写线程进入等待后在关闭前不会取走记录
+        AuditJournal journal = new AuditJournal(dir, 4096, 0, 2, 60_000);
+        Thread.sleep(100);
+        assertTrue(journal.append("A.a", null, new Object[0], "success", 0));
+        assertTrue(journal.append("A.a", null, new Object[0], "success", 0));
+        assertFalse(journal.append("A.a", null, new Object[0], "success", 0));
+        journal.close();
+        assertFalse(journal.append("A.a", null, new Object[0], "success", 0));
+        assertEquals(2, journal.getWritten());
+        assertEquals(2, journal.getDropped());
+    }
+
+    @Test
+    void dropsRecordsLargerThanASegment() throws IOException {
+        AuditJournal journal = new AuditJournal(dir, 64, 0, 16, 5);
+        journal.append("WeatherService.findWithAVeryLongToolName", "session", new Object[]{"Oslo"}, "success", 0);
+        journal.close();
+        assertEquals(0, journal.getWritten());
+        assertEquals(1, journal.getDropped());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("audit-"))
+                    .sorted((a, b) -> Integer.compare(id(a), id(b)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int id(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring("audit-".length(), name.length() - ".jsonl".length()));
+    }
+}
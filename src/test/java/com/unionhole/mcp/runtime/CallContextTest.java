@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deadlines, cancellation and propagation of {@link CallContext}
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+class CallContextTest {
+
+    @Test
+    void deadlineInterruptsBlockingCall() {
+        CallContext context = CallContext.root().child(50, null);
+        long start = System.nanoTime();
+        MCPException failure = assertThrows(MCPException.class, () -> context.run(() -> {
+            Thread.sleep(5000);
+            return "late";
+        }));
+        assertEquals(CallContext.DEADLINE_EXCEEDED, failure.getCode());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        // 取消时设置的中断标志在调用结束后清除
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void cancelFromAnotherThreadInterruptsCall() {
+        CallContext context = CallContext.root().child(0, "session-1");
+        CompletableFuture.runAsync(context::cancel, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        MCPException failure = assertThrows(MCPException.class, () -> context.run(() -> {
+            Thread.sleep(5000);
+            return "never";
+        }));
+        assertEquals(CallContext.CANCELLED, failure.getCode());
+        assertTrue(context.isCancelled());
+    }
+
+    @Test
+    void cancelledContextDoesNotStartTheCall() {
+        CallContext context = CallContext.root().child(0, null);
+        context.cancel();
+        AtomicBoolean called = new AtomicBoolean();
+        assertThrows(MCPException.class, () -> context.run(() -> called.getAndSet(true)));
+        assertFalse(called.get());
+    }
+
+    @Test
+    void childInheritsDeadlineSessionAndCancellation() {
+        CallContext parent = CallContext.root().child(10_000, "session-2");
+        CallContext child = parent.child(60_000);
+        assertEquals("session-2", child.getSession());
+        assertTrue(child.remainingMillis() <= parent.remainingMillis());
+        assertTrue(parent.child(100).remainingMillis() <= 100);
+        parent.cancel();
+        assertTrue(child.isCancelled());
+    }
+
+    @Test
+    void currentIsTheRunningContext() throws Exception {
+        CallContext context = CallContext.root().child(1000, "session-3");
+        assertSame(context, context.run(CallContext::current));
+        assertSame(CallContext.root(), CallContext.current());
+        assertFalse(CallContext.current().hasDeadline());
+    }
+
+    @Test
+    void withTimeoutNarrowsTheCurrentDeadline() throws Exception {
+        CallContext context = CallContext.root().child(10_000, null);
+        long remaining = context.run(() -> CallContext.withTimeout(200, () -> CallContext.current().remainingMillis()));
+        assertTrue(remaining <= 200);
+        MCPException failure = assertThrows(MCPException.class, () -> context.run(() ->
+                CallContext.withTimeout(20, () -> {
+                    Thread.sleep(5000);
+                    return null;
+                })));
+        assertEquals(CallContext.DEADLINE_EXCEEDED, failure.getCode());
+        // 子上下文超时不影响父上下文
+        assertFalse(context.isCancelled());
+    }
+
+    @Test
+    void propagateRunsOnAnotherThreadInTheCallerContext() throws Exception {
+        CallContext context = CallContext.root().child(5000, "session-4");
+        ServiceCall<String> call = context.run(() -> CallContext.propagate(() -> CallContext.current().getSession()));
+        assertEquals("session-4", CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).get());
+    }
+
+    @Test
+    void runAsyncCancelsTheServiceFutureAtTheDeadline() {
+        CallContext context = CallContext.root().child(50, null);
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> result = context.runAsync(() -> source);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(MCPException.class, failure.getCause());
+        assertEquals(CallContext.DEADLINE_EXCEEDED, ((MCPException) failure.getCause()).getCode());
+        // 结果先于源 future 的取消完成，等待取消落地
+        assertThrows(Exception.class, () -> source.get(2, TimeUnit.SECONDS));
+        assertTrue(source.isCancelled());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * State transitions of {@link CircuitBreaker}
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 50% failure threshold over 4 calls, open for 50 ms, one probe
+     */
+    private static CircuitBreaker breaker() {
+        return new CircuitBreaker("Service.tool", 50, 0, 100, 4, 4, 50, 1);
+    }
+
+    private static void record(CircuitBreaker breaker, boolean failed) {
+        breaker.onResult(breaker.tryAcquirePermission(), failed, FAST);
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = breaker();
+        record(breaker, true);
+        record(breaker, true);
+        record(breaker, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(-1, breaker.getFailureRate());
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = breaker();
+        record(breaker, false);
+        record(breaker, false);
+        record(breaker, true);
+        record(breaker, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+        MCPException rejected = assertThrows(MCPException.class, () -> breaker.execute(() -> "value"));
+        assertEquals(CircuitBreaker.SERVICE_UNAVAILABLE, rejected.getCode());
+    }
+
+    @Test
+    void opensOnSlowCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("Service.slow", 100, 10, 50, 2, 2, 50, 1);
+        long slow = TimeUnit.MILLISECONDS.toNanos(20);
+        breaker.onResult(breaker.tryAcquirePermission(), false, slow);
+        breaker.onResult(breaker.tryAcquirePermission(), false, slow);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenProbeClosesOnSuccess() throws Exception {
+        CircuitBreaker breaker = breaker();
+        breaker.forceOpen();
+        Thread.sleep(80);
+        int probe = breaker.tryAcquirePermission();
+        assertNotEquals(CircuitBreaker.REJECTED, probe);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // 半开状态只放行配置数量的探测调用
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+        breaker.onResult(probe, false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenProbeReopensOnFailure() throws Exception {
+        CircuitBreaker breaker = breaker();
+        breaker.forceOpen();
+        Thread.sleep(80);
+        assertThrows(IllegalStateException.class, () -> breaker.execute(() -> {
+            throw new IllegalStateException("backend down");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void outcomeOfAnEarlierStateIsIgnored() {
+        CircuitBreaker breaker = breaker();
+        int closedPermit = breaker.tryAcquirePermission();
+        breaker.forceOpen();
+        breaker.reset();
+        // 在重置之前发放的许可不计入新的窗口
+        breaker.onResult(closedPermit, true, FAST);
+        record(breaker, false);
+        record(breaker, false);
+        record(breaker, false);
+        assertEquals(-1, breaker.getFailureRate());
+        record(breaker, false);
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    @Test
+    void resetClosesAndForgetsCalls() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            record(breaker, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        breaker.reset();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(-1, breaker.getFailureRate());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hedging budget and winner selection of {@link Hedger}
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+class HedgerTest {
+
+    private static String slow() throws InterruptedException {
+        Thread.sleep(30);
+        return "slow";
+    }
+
+    @Test
+    void fastCallsAreNotHedged() throws Exception {
+        Hedger hedger = new Hedger("Service.fast", 200, 100);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("fast", hedger.execute(() -> "fast"));
+        }
+        assertEquals(0, hedger.getHedges());
+    }
+
+    @Test
+    void budgetLimitsTheShareOfHedgedCalls() throws Exception {
+        // 每次调用存入半个对冲的额度，每两次慢调用最多对冲一次
+        Hedger hedger = new Hedger("Service.half", 5, 50);
+        for (int i = 0; i < 6; i++) {
+            assertEquals("slow", hedger.execute(HedgerTest::slow));
+        }
+        assertEquals(3, hedger.getHedges());
+    }
+
+    @Test
+    void zeroBudgetNeverHedges() throws Exception {
+        Hedger hedger = new Hedger("Service.none", 5, 0);
+        for (int i = 0; i < 3; i++) {
+            hedger.execute(HedgerTest::slow);
+        }
+        assertEquals(0, hedger.getHedges());
+    }
+
+    @Test
+    void fasterHedgeWinsAndPrimaryIsInterrupted() throws Exception {
+        Hedger hedger = new Hedger("Service.win", 10, 100);
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        String result = hedger.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "primary";
+            }
+            return "hedge";
+        });
+        assertEquals("hedge", result);
+        assertEquals(1, hedger.getHedges());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        // 对冲线程在交付结果之后才计数
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (hedger.getHedgeWins() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, hedger.getHedgeWins());
+    }
+
+    @Test
+    void firstFailureIsThrownWhenAllAttemptsFail() {
+        Hedger hedger = new Hedger("Service.fail", 5, 100);
+        AtomicInteger attempts = new AtomicInteger();
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> hedger.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                Thread.sleep(50);
+                throw new IllegalStateException("first");
+            }
+            throw new IllegalStateException("second");
+        }));
+        assertEquals(2, attempts.get());
+        // 对冲调用先失败，等待主调用的结果
+        assertEquals("second", thrown.getMessage());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import com.unionhole.mcp.vo.Page;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cursors of {@link Pages}: walking all pages, and rejecting foreign or
+ * malformed cursors
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+class PagesTest {
+    private static final List<Integer> ROWS = IntStream.range(0, 7).boxed().collect(Collectors.toList());
+
+    @Test
+    void sliceWalksAllPagesWithCursors() {
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Page<Integer> page = Pages.slice("Service.rows", cursor, 3, ROWS);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(ROWS, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void sliceOfNonListCollection() {
+        Page<Integer> first = Pages.slice("Service.set", null, 2, new LinkedHashSet<>(ROWS));
+        Page<Integer> second = Pages.slice("Service.set", first.getNextCursor(), 2, new LinkedHashSet<>(ROWS));
+        assertEquals(Arrays.asList(2, 3), second.getItems());
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        Page<Integer> page = Pages.slice("Service.rows", Pages.encode("Service.rows", 4), 3, ROWS);
+        assertEquals(Arrays.asList(4, 5, 6), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void fetchAsksForOneExtraRowToDetectMorePages() throws Exception {
+        List<int[]> queries = new ArrayList<>();
+        PageQuery<Integer> query = (offset, limit) -> {
+            queries.add(new int[]{offset, limit});
+            return ROWS.subList(Math.min(offset, ROWS.size()), Math.min(offset + limit, ROWS.size()));
+        };
+        Page<Integer> first = Pages.fetch("Service.rows", null, 3, query);
+        assertEquals(Arrays.asList(0, 1, 2), first.getItems());
+        assertNotNull(first.getNextCursor());
+        Page<Integer> third = Pages.fetch("Service.rows", Pages.encode("Service.rows", 6), 3, query);
+        assertEquals(List.of(6), third.getItems());
+        assertNull(third.getNextCursor());
+        assertEquals(0, queries.get(0)[0]);
+        assertEquals(4, queries.get(0)[1]);
+        assertEquals(6, queries.get(1)[0]);
+    }
+
+    @Test
+    void cursorOfAnotherToolIsRejected() {
+        String cursor = Pages.encode("Service.rows", 3);
+        MCPException rejected = assertThrows(MCPException.class, () -> Pages.decode("Service.other", cursor));
+        assertEquals(MCPException.BAD_REQUEST, rejected.getCode());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(MCPException.class, () -> Pages.decode("Service.rows", "not base64!"));
+        assertThrows(MCPException.class, () -> Pages.decode("Service.rows", "MTp4OnRvb2w"));
+        assertEquals(0, Pages.decode("Service.rows", ""));
+        assertEquals(3, Pages.decode("Service.rows", Pages.encode("Service.rows", 3)));
+    }
+}
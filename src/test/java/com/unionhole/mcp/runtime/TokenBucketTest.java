@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Burst and refill of {@link TokenBucket} and the buckets of {@link RateLimiter}
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+class TokenBucketTest {
+
+    @Test
+    void burstIsAvailableAtOnceThenRejected() {
+        // 每秒 1 个令牌，突发期间不会补充
+        TokenBucket bucket = new TokenBucket(1, 3);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void refillsAtTheSustainedRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(50, 1);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        // 每 20 毫秒补充一个令牌
+        Thread.sleep(60);
+        assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    void idleTimeDoesNotGrowTheBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 2);
+        Thread.sleep(100);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+    }
+
+    @Test
+    void keyedLimiterGivesEveryKeyItsOwnBucket() {
+        RateLimiter limiter = new RateLimiter("Service.tool", 1, 1);
+        limiter.acquire("a");
+        limiter.acquire("b");
+        MCPException rejected = assertThrows(MCPException.class, () -> limiter.acquire("a"));
+        assertEquals(MCPException.TOO_MANY_REQUESTS, rejected.getCode());
+        // 没有键的调用使用共享的桶
+        limiter.acquire(null);
+        assertThrows(MCPException.class, limiter::acquire);
+    }
+}
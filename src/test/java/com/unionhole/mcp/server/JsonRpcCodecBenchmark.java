@@ -0,0 +1,156 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Compares reading and echoing newline-delimited JSON-RPC messages through
+ * {@link JsonRpcReader}/{@link JsonRpcWriter} with the naive
+ * {@code BufferedReader.readLine()} + {@code readTree(String)} +
+ * {@code writeValueAsString} approach.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.unionhole.mcp.server.JsonRpcCodecBenchmark -Dexec.args="200000 10"
+ * </pre>
+ *
+ * Arguments: number of messages (default 100000) and rounds (default 10).
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+public class JsonRpcCodecBenchmark {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path input = Files.createTempFile("jsonrpc-bench", ".ndjson");
+        try {
+            long bytes = writeInput(input, messages);
+            System.out.printf("%d messages, %.1f MB%n", messages, bytes / 1048576.0);
+            for (int round = 1; round <= rounds; round++) {
+                // 交替运行，两种方式受 JIT 和 GC 的影响相同
+                report(round, "naive", messages, bytes, () -> naive(input));
+                report(round, "nio  ", messages, bytes, () -> codec(input));
+            }
+        } finally {
+            Files.deleteIfExists(input);
+        }
+    }
+
+    private static long naive(Path input) throws IOException {
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode message = mapper.readTree(line);
+                writer.write(mapper.writeValueAsString(message));
+                writer.write('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long codec(Path input) throws IOException {
+        long count = 0;
+        BufferPool pool = BufferPool.shared();
+        JsonRpcWriter writer = new JsonRpcWriter(new NullChannel(), pool, mapper);
+        try (JsonRpcReader reader = new JsonRpcReader(FileChannel.open(input, StandardOpenOption.READ), pool, mapper)) {
+            JsonNode message;
+            while ((message = reader.read()) != null) {
+                writer.write(message);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void report(int round, String name, int messages, long bytes, Run run) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long count = run.run();
+        long nanos = System.nanoTime() - start;
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+        if (count != messages) {
+            throw new IllegalStateException(name + " read " + count + " of " + messages + " messages");
+        }
+        System.out.printf("round %2d %s %8.0f msg/s %7.1f MB/s %7.0f B/msg allocated%n", round, name,
+                messages * 1e9 / nanos, bytes * 1e9 / nanos / 1048576.0, (double) allocated / messages);
+    }
+
+    private static long writeInput(Path input, int messages) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < messages; i++) {
+                StringBuilder text = new StringBuilder();
+                int words = 4 + random.nextInt(60);
+                for (int w = 0; w < words; w++) {
+                    text.append(w == 0 ? "" : " ").append(Integer.toString(random.nextInt(1 << 20), 36));
+                }
+                writer.write("{\"jsonrpc\":\"2.0\",\"id\":" + i + ",\"method\":\"tools/call\",\"params\":"
+                        + "{\"name\":\"getWeather\",\"arguments\":{\"cityName\":\"Paris\",\"days\":" + random.nextInt(14)
+                        + ",\"note\":\"" + text + "\"}}}\n");
+            }
+        }
+        return Files.size(input);
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        long run() throws IOException;
+    }
+
+    private static final class NullChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 James Zou
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.unionhole.mcp.server;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Framing of {@link JsonRpcReader}: messages split across reads, buffer
+ * growth, oversized and malformed frames
+ *
+ * @author James Zou
+ * @version 1.0.2
+ * @since 2026/10/19
+ */
+class JsonRpcReaderTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonRpcReader reader(String input, int chunk, int maxFrameBytes) {
+        // 16 字节的缓冲区，较长的消息需要扩大缓冲区
+        return new JsonRpcReader(new ChunkedChannel(input.getBytes(StandardCharsets.UTF_8), chunk),
+                new BufferPool(16, 2), mapper, maxFrameBytes);
+    }
+
+    @Test
+    void readsMessagesSplitAcrossReads() throws IOException {
+        String first = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"ping\"}";
+        try (JsonRpcReader reader = reader(first + "\n\r\n  \n{\"id\":2}", 3, 1024)) {
+            assertEquals(1, reader.read().get("id").asInt());
+            // 空行被跳过，最后一条消息可以没有换行符
+            assertEquals(2, reader.read().get("id").asInt());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void oversizedFrameIsSkippedUpToItsNewline() throws IOException {
+        String large = "{\"data\":\"" + "x".repeat(500) + "\"}";
+        try (JsonRpcReader reader = reader(large + "\n{\"id\":3}\n", 7, 64)) {
+            JsonParseException error = assertThrows(JsonParseException.class, reader::read);
+            assertTrue(error.getOriginalMessage().contains("64 bytes"));
+            assertEquals(3, reader.read().get("id").asInt());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void oversizedLastFrameWithoutNewline() throws IOException {
+        try (JsonRpcReader reader = reader("{\"id\":4}\n" + "y".repeat(300), 50, 64)) {
+            assertEquals(4, reader.read().get("id").asInt());
+            assertThrows(JsonParseException.class, reader::read);
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void malformedFrameDoesNotStopTheReader() throws IOException {
+        try (JsonRpcReader reader = reader("{\"id\":\n{\"id\":5}\n", 64, 1024)) {
+            assertThrows(JsonParseException.class, reader::read);
+            assertEquals(5, reader.read().get("id").asInt());
+        }
+    }
+
+    @Test
+    void frameUpToTheLimitIsAccepted() throws IOException {
+        String message = "{\"data\":\"" + "z".repeat(40) + "\"}";
+        try (JsonRpcReader reader = reader(message + "\n", 5, message.length() + 1)) {
+            assertEquals(40, reader.read().get("data").asText().length());
+        }
+    }
+
+    /**
+     * Returns at most {@code chunk} bytes per read, like a slow pipe
+     */
+    private static final class ChunkedChannel implements ReadableByteChannel {
+        private final ByteBuffer data;
+        private final int chunk;
+        private boolean open = true;
+
+        ChunkedChannel(byte[] data, int chunk) {
+            this.data = ByteBuffer.wrap(data);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(chunk, Math.min(dst.remaining(), data.remaining()));
+            ByteBuffer slice = data.slice();
+            slice.limit(n);
+            dst.put(slice);
+            data.position(data.position() + n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}